@@ -0,0 +1,88 @@
+package com.spring.project.benchmark;
+
+import com.spring.project.ProjectApplication;
+import com.spring.project.dto.BoardListDto;
+import com.spring.project.entity.Board;
+import com.spring.project.service.BoardService;
+import com.spring.project.service.BoardSummaryWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BoardServiceImpl 목록 / 상세 조회
+ * 임베디드 H2(MariaDB 모드)에 게시글 BOARD_COUNT건을 넣고 애플리케이션 컨텍스트를 그대로 띄워서 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoardServiceBenchmark {
+
+    private static final int BOARD_COUNT = 100_000;
+
+    private ConfigurableApplicationContext context;
+
+    private BoardService boardService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProjectApplication.class)
+                .properties(EmbeddedDatabase.properties("jmh-board"))
+                .run();
+        boardService = context.getBean(BoardService.class);
+        seed(context.getBean(JdbcTemplate.class));
+        // JDBC로 직접 넣은 게시글은 목록용 요약 행이 없으므로 채운다.
+        context.getBean(BoardSummaryWriter.class).backfill();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BoardListDto> firstPage() throws Exception {
+        return boardService.selectBoardList(0, 20);
+    }
+
+    @Benchmark
+    public List<BoardListDto> deepPage() throws Exception {
+        return boardService.selectBoardList(100, 20);
+    }
+
+    @Benchmark
+    public Board detail() throws Exception {
+        return boardService.selectBoardDetail(BOARD_COUNT / 2);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 1; i <= BOARD_COUNT; i++) {
+            batch.add(new Object[]{"title " + i, "content " + i, "admin", now});
+            if (batch.size() == 1000) {
+                insert(jdbcTemplate, batch);
+                batch.clear();
+            }
+        }
+        insert(jdbcTemplate, batch);
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO t_jpa_board (title, content, hit_cnt, creator_id, created_datetime) VALUES (?, ?, 0, ?, ?)", batch);
+    }
+}
@@ -0,0 +1,93 @@
+package com.spring.project.benchmark;
+
+import com.spring.project.controller.BoardController;
+import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.service.BoardService;
+import com.spring.project.util.BoardRequestExecutor;
+import com.spring.project.util.DownloadUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BoardController.downloadBoardFile() 다운로드 경로
+ * 서비스는 목으로 대체하고, 실제 파일을 읽어 응답(메모리 버퍼)에 쓰는 비용을 잰다. (sendfile이 없는 fallback 경로)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DownloadBenchmark {
+
+    @Param({"65536", "4194304"})
+    public int fileSize;
+
+    private Path file;
+
+    private BoardController controller;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        file = Files.createTempFile("jmh-download", ".png");
+        Files.write(file, content);
+
+        BoardFileEntity boardFile = new BoardFileEntity();
+        boardFile.setIdx(1);
+        boardFile.setBoardIdx(1);
+        boardFile.setOriginalFillName("image.png");
+        boardFile.setStoredFilePath(file.toString());
+        boardFile.setFileSize(fileSize);
+        boardFile.setCreatedDatetime(LocalDateTime.now());
+
+        BoardService boardService = Mockito.mock(BoardService.class);
+        Mockito.when(boardService.selectBoardFileInformation(1, 1)).thenReturn(boardFile);
+
+        controller = new BoardController();
+        ReflectionTestUtils.setField(controller, "boardService", boardService);
+        DownloadUtils downloadUtils = new DownloadUtils();
+        ReflectionTestUtils.setField(downloadUtils, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(controller, "downloadUtils", downloadUtils);
+        ReflectionTestUtils.setField(controller, "boardRequestExecutor", new BoardRequestExecutor("blocking", 1, 1, 30000));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fullDownload() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/board/file");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.downloadBoardFile(1, 1, null, request, response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse rangeDownload() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/board/file");
+        request.addHeader("Range", "bytes=" + (fileSize / 2) + "-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.downloadBoardFile(1, 1, null, request, response);
+        return response;
+    }
+}
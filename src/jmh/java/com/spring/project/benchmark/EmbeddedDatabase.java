@@ -0,0 +1,40 @@
+package com.spring.project.benchmark;
+
+/**
+ * 벤치마크용 애플리케이션 설정 (MariaDB 대신 인메모리 H2를 MariaDB 모드로 사용)
+ *
+ * -PbenchmarkDatasourceUrl=jdbc:mariadb://localhost:3306/bench 처럼 주면 로컬 MariaDB에서 측정한다.
+ * (계정은 -PbenchmarkDatasourceUsername / -PbenchmarkDatasourcePassword)
+ * 테이블을 만들고 지우므로(create-drop) 벤치마크 전용 빈 DB를 써야 한다.
+ */
+final class EmbeddedDatabase {
+
+    private EmbeddedDatabase() {
+    }
+
+    static String[] properties(String name) {
+        String url = System.getProperty("benchmark.datasource.url");
+        if (url != null && url.isEmpty() == false) {
+            return new String[]{
+                    "spring.datasource.url=" + url,
+                    "spring.datasource.driver-class-name=org.mariadb.jdbc.Driver",
+                    "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "root"),
+                    "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", ""),
+                    "spring.jpa.hibernate.ddl-auto=create-drop",
+                    "server.port=0"
+            };
+        }
+        return new String[]{
+                "spring.datasource.url=jdbc:h2:mem:" + name + ";MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.properties.hibernate.show_sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql=WARN",
+                "server.port=0"
+        };
+    }
+}
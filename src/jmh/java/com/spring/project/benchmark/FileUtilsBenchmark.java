@@ -0,0 +1,106 @@
+package com.spring.project.benchmark;
+
+import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.storage.ContentAddressedAttachmentStore;
+import com.spring.project.util.FileUploadExecutor;
+import com.spring.project.util.FileUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.mock.web.MockMultipartHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileUtils.parseFileInfo() 업로드 경로
+ * 가짜 multipart 요청(PNG 시그니처 + 임의 바이트, files장 x fileSize 바이트)을 만들어 저장소(임시 디렉토리)에 저장하는 시간을 잰다.
+ * distinct = false 이면 매번 같은 내용을 올려서 중복 제거 경로를 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileUtilsBenchmark {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @Param({"1", "8"})
+    public int files;
+
+    @Param({"65536", "1048576"})
+    public int fileSize;
+
+    @Param({"true", "false"})
+    public boolean distinct;
+
+    private final Random random = new Random(42);
+
+    private Path root;
+
+    private FileUploadExecutor executor;
+
+    private FileUtils fileUtils;
+
+    private byte[][] contents;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("jmh-upload");
+        executor = new FileUploadExecutor(4, 64, 3000);
+        fileUtils = new FileUtils();
+        ReflectionTestUtils.setField(fileUtils, "fileUploadExecutor", executor);
+        ReflectionTestUtils.setField(fileUtils, "attachmentStore", new ContentAddressedAttachmentStore(root.toString()));
+        ReflectionTestUtils.setField(fileUtils, "meterRegistry", new SimpleMeterRegistry());
+
+        contents = new byte[files][fileSize];
+        for (byte[] content : contents) {
+            randomPng(content);
+        }
+
+        // 파일 종류는 앞부분(magic bytes)으로 판단하므로 이미지로 인식되지 않으면 빈 루프를 재게 된다.
+        int parsed = parseFileInfo().size();
+        if (parsed != files) {
+            throw new IllegalStateException("업로드된 파일 수가 다릅니다 : " + parsed + " / " + files);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.shutdown();
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public List<BoardFileEntity> parseFileInfo() throws Exception {
+        MockMultipartHttpServletRequest request = new MockMultipartHttpServletRequest();
+        for (int i = 0; i < files; i++) {
+            if (distinct) {
+                randomPng(contents[i]);
+            }
+            request.addFile(new MockMultipartFile("files", "image" + i + ".png", "image/png", contents[i]));
+        }
+        List<BoardFileEntity> list = fileUtils.parseFileInfo(request);
+        fileUtils.completeUpload(list, true);
+        return list;
+    }
+
+    // 임의의 바이트 앞에 PNG 시그니처(8바이트)를 쓴다. (ImageTypeSniffer가 PNG로 인식)
+    private void randomPng(byte[] content) {
+        random.nextBytes(content);
+        System.arraycopy(PNG_SIGNATURE, 0, content, 0, PNG_SIGNATURE.length);
+    }
+}
@@ -0,0 +1,132 @@
+package com.spring.project.benchmark;
+
+import com.spring.project.ProjectApplication;
+import com.spring.project.service.BoardSummaryWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주요 조회 SQL의 쿼리당 지연 시간 (커넥션 풀 + 드라이버 + statement 캐시 + 인덱스)
+ *
+ * 애플리케이션이 실행하는 것과 같은 SQL을 캐시를 거치지 않고 JdbcTemplate으로 직접 실행한다.
+ * 기본은 H2(MariaDB 모드), -PbenchmarkDatasourceUrl=... 을 주면 로컬 MariaDB에서 측정한다. (EmbeddedDatabase)
+ * 운영 설정(application-prod.properties)의 효과를 보려면 URL에 같은 옵션(useServerPrepStmts 등)을 붙여서 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryLatencyBenchmark {
+
+    private static final int BOARD_COUNT = 10_000;
+
+    private static final int FILES_PER_BOARD = 2;
+
+    private static final int USER_COUNT = 1_000;
+
+    private ConfigurableApplicationContext context;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ProjectApplication.class)
+                .properties(EmbeddedDatabase.properties("jmh-query"))
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seed();
+        context.getBean(BoardSummaryWriter.class).backfill();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 로그인 : user_info.email UNIQUE 인덱스
+    @Benchmark
+    public List<Map<String, Object>> userByEmail() {
+        return jdbcTemplate.queryForList("SELECT uid, email, password, name, auth FROM user_info WHERE email = ?",
+                "user" + next(USER_COUNT) + "@test.com");
+    }
+
+    // 첨부파일 목록 : t_jpa_file.board_idx 인덱스
+    @Benchmark
+    public List<Map<String, Object>> filesByBoard() {
+        return jdbcTemplate.queryForList("SELECT idx, original_fill_name, stored_file_path, file_size FROM t_jpa_file WHERE board_idx = ?",
+                next(BOARD_COUNT));
+    }
+
+    // 상세 : 게시글 + 첨부파일 join (findWithFileListByBoardIdx)
+    @Benchmark
+    public List<Map<String, Object>> boardDetail() {
+        return jdbcTemplate.queryForList("SELECT b.board_idx, b.title, b.content, b.hit_cnt, f.idx, f.stored_file_path " +
+                "FROM t_jpa_board b LEFT JOIN t_jpa_file f ON f.board_idx = b.board_idx WHERE b.board_idx = ?", next(BOARD_COUNT));
+    }
+
+    // 목록 한 페이지 : 요약 테이블 keyset 페이징
+    @Benchmark
+    public List<Map<String, Object>> listPage() {
+        return jdbcTemplate.queryForList("SELECT board_idx, title, hit_cnt, created_datetime, file_count, thumbnail_file_idx " +
+                "FROM t_jpa_board_summary WHERE board_idx < ? ORDER BY board_idx DESC LIMIT 20", next(BOARD_COUNT) + 20);
+    }
+
+    // 조회수 반영 한 건 (BoardHitCounter flush)
+    @Benchmark
+    public int hitUpdate() {
+        return jdbcTemplate.update("UPDATE t_jpa_board SET hit_cnt = hit_cnt + ? WHERE board_idx = ?", 1, next(BOARD_COUNT));
+    }
+
+    // 1..bound 를 돌아가며 사용 (같은 행만 읽어서 캐시 효과만 재지 않도록)
+    private int next(int bound) {
+        sequence = sequence % bound + 1;
+        return sequence;
+    }
+
+    private void seed() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> boards = new ArrayList<>();
+        for (int i = 1; i <= BOARD_COUNT; i++) {
+            boards.add(new Object[]{"title " + i, "content " + i, "admin", now});
+        }
+        batchInsert("INSERT INTO t_jpa_board (title, content, hit_cnt, creator_id, created_datetime) VALUES (?, ?, 0, ?, ?)", boards);
+
+        List<Object[]> files = new ArrayList<>();
+        for (int i = 1; i <= BOARD_COUNT; i++) {
+            for (int j = 0; j < FILES_PER_BOARD; j++) {
+                files.add(new Object[]{i, "file" + j + ".png", "images/blobs/" + i + "-" + j, 1024L, "admin", now});
+            }
+        }
+        batchInsert("INSERT INTO t_jpa_file (board_idx, original_fill_name, stored_file_path, file_size, creator_id, created_datetime) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", files);
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USER_COUNT; i++) {
+            users.add(new Object[]{"user" + i + "@test.com", "{noop}password", "user" + i, "ROLE_USER"});
+        }
+        batchInsert("INSERT INTO user_info (email, password, name, auth) VALUES (?, ?, ?, ?)", users);
+    }
+
+    private void batchInsert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += 1000) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + 1000, rows.size())));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.spring.project.benchmark;
+
+import com.spring.project.entity.UserInfo;
+import com.spring.project.security.AuthToken;
+import com.spring.project.security.AuthTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
+
+import javax.servlet.http.HttpSession;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로그인 상태 저장 방식 비교 (security.session.mode)
+ *
+ * session   : 로그인한 사용자마다 서버 힙에 세션(SecurityContext + CSRF 토큰)을 들고 있고, 요청마다 세션 ID로 찾는다.
+ * stateless : 서버에는 아무것도 없고, 요청마다 쿠키의 토큰 서명(HMAC)을 확인해서 인증 객체를 만든다.
+ *
+ * 요청당 비용은 벤치마크 결과로, 사용자당 세션 메모리는 setUp에서 힙 사용량 차이로 재서 로그로 남긴다.
+ * (MockHttpSession 기준이라 Tomcat StandardSession 자체의 필드 / 관리 비용은 빠져 있으므로 실제로는 더 크다.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SessionModeBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionModeBenchmark.class);
+
+    private static final int USERS = 20_000;
+
+    private static final String BCRYPT_HASH = BCrypt.hashpw("password", BCrypt.gensalt(4));
+
+    private final Map<String, HttpSession> sessions = new ConcurrentHashMap<>();
+
+    private String[] sessionIds;
+
+    private String[] tokens;
+
+    private AuthTokenService authTokenService;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedHeap();
+        sessionIds = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            HttpSession session = newLoginSession(i);
+            sessions.put(session.getId(), session);
+            sessionIds[i] = session.getId();
+        }
+        long sessionBytes = (usedHeap() - before) / USERS;
+
+        byte[] secret = new byte[32];
+        authTokenService = new AuthTokenService(new SimpleMeterRegistry(), "stateless",
+                Base64.getEncoder().encodeToString(secret), 1800, 900, false);
+        tokens = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            tokens[i] = authTokenService.encode(authTokenService.issue(user(i, null)));
+        }
+        log.info("세션 모드 : 사용자당 세션 메모리 약 {} bytes ({}명), stateless : 0 bytes (요청마다 쿠키 {} bytes 전송)",
+                sessionBytes, USERS, tokens[0].length());
+    }
+
+    @Benchmark
+    public SecurityContext sessionLookup() {
+        HttpSession session = sessions.get(sessionIds[nextIndex()]);
+        return (SecurityContext) session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+    }
+
+    @Benchmark
+    public Authentication tokenVerify() {
+        AuthToken token = authTokenService.verify(tokens[nextIndex()]);
+        return authTokenService.toAuthentication(token);
+    }
+
+    private int nextIndex() {
+        next = next + 1 == USERS ? 0 : next + 1;
+        return next;
+    }
+
+    // 폼 로그인 후 세션에 남는 것 : SecurityContext(UserInfo + 권한 + 요청 정보), CSRF 토큰
+    private static HttpSession newLoginSession(int i) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0." + (i / 256 % 256) + "." + (i % 256));
+        MockHttpSession session = new MockHttpSession(null, UUID.randomUUID().toString().replace("-", ""));
+        request.setSession(session);
+
+        UserInfo user = user(i, BCRYPT_HASH);
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetails(request));
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                new SecurityContextImpl(authentication));
+
+        HttpSessionCsrfTokenRepository csrfTokenRepository = new HttpSessionCsrfTokenRepository();
+        CsrfToken csrfToken = csrfTokenRepository.generateToken(request);
+        csrfTokenRepository.saveToken(csrfToken, request, null);
+        return session;
+    }
+
+    private static UserInfo user(int i, String password) {
+        return UserInfo.builder()
+                .email("user" + i + "@test.com")
+                .password(password)
+                .name("user" + i)
+                .auth("ROLE_USER")
+                .build();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
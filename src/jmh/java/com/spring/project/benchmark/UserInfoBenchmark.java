@@ -0,0 +1,50 @@
+package com.spring.project.benchmark;
+
+import com.spring.project.entity.UserInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserInfo.getAuthorities() 비용
+ * firstCall = 권한 문자열 파싱 (새로 로드된 사용자), cachedCall = 이미 파싱된 사용자 (인가 검사마다 호출되는 경로)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserInfoBenchmark {
+
+    private UserInfo cachedUser;
+
+    @Setup
+    public void setUp() {
+        cachedUser = newUser();
+        cachedUser.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<?> firstCall() {
+        return newUser().getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<?> cachedCall() {
+        return cachedUser.getAuthorities();
+    }
+
+    private static UserInfo newUser() {
+        return UserInfo.builder()
+                .email("user@test.com")
+                .password("password")
+                .name("user")
+                .auth("ROLE_ADMIN,ROLE_USER")
+                .build();
+    }
+}
@@ -2,12 +2,19 @@ package com.spring.project;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling // 조회수 flush 등 @Scheduled 작업 활성화
 @SpringBootApplication
 public class ProjectApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(ProjectApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(ProjectApplication.class, args);
+		// CDS 아카이브 학습 실행 (build.gradle cdsArchive) : 기동하면서 읽은 클래스만 남기고 바로 종료
+		if (Boolean.getBoolean("startup.exit-after-start")) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
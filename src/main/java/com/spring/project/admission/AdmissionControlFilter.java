@@ -0,0 +1,226 @@
+package com.spring.project.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * 업로드 / 로그인 요청 수 제한 (admission control)
+ *
+ * 게시글 작성(POST /boardwrite, 첨부파일 multipart)과 로그인 / 회원가입(POST /login, /user, BCrypt 해싱)은 가장 비싼 요청이라
+ * 한꺼번에 몰리면 나머지 요청까지 느려진다. 그래서 스프링 시큐리티 필터 체인 안(UsernamePasswordAuthenticationFilter 앞)에서
+ * 본문을 읽기 전에 아래 순서로 검사하고, 넘치면 기다리지 않고 바로 429 + Retry-After 로 거절한다.
+ *
+ * 1. 사용자별 / IP별 토큰 버킷 (KeyedRateLimiter) : 한 사용자나 IP가 몰아서 보내는 요청을 막는다.
+ * 2. 전체 동시 처리 수 (Semaphore) : 업로드와 로그인 각각 동시에 처리 중인 요청 수를 제한한다.
+ *
+ * 허용되는 요청은 CAS 몇 번과 캐시 조회만 하므로 비용이 거의 없다.
+ * 거절 수는 admission.rejected (kind, reason), 처리 중인 요청 수는 admission.in.flight (kind) 로 확인한다.
+ * IP는 request.getRemoteAddr() 이므로 프록시 뒤에서는 server.forward-headers-strategy 를 설정해야 한다.
+ */
+@Slf4j
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    enum Kind {
+        UPLOAD, LOGIN;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final boolean enabled;
+
+    private final KeyedRateLimiter uploadsPerUser;
+
+    private final KeyedRateLimiter uploadsPerIp;
+
+    private final KeyedRateLimiter loginsPerUsername;
+
+    private final KeyedRateLimiter loginsPerIp;
+
+    private final Semaphore uploadPermits;
+
+    private final Semaphore loginPermits;
+
+    private final MeterRegistry meterRegistry;
+
+    LongSupplier clock = System::nanoTime;
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry,
+                                  @Value("${admission.enabled:true}") boolean enabled,
+                                  @Value("${admission.max-keys:100000}") long maximumKeys,
+                                  @Value("${admission.upload.per-user-per-minute:30}") int uploadsPerUserPerMinute,
+                                  @Value("${admission.upload.per-ip-per-minute:60}") int uploadsPerIpPerMinute,
+                                  @Value("${admission.upload.burst:10}") int uploadBurst,
+                                  @Value("${admission.upload.max-concurrent:16}") int uploadMaxConcurrent,
+                                  @Value("${admission.login.per-username-per-minute:10}") int loginsPerUsernamePerMinute,
+                                  @Value("${admission.login.per-ip-per-minute:30}") int loginsPerIpPerMinute,
+                                  @Value("${admission.login.burst:5}") int loginBurst,
+                                  @Value("${admission.login.max-concurrent:64}") int loginMaxConcurrent) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.uploadsPerUser = new KeyedRateLimiter(uploadsPerUserPerMinute, uploadBurst, maximumKeys);
+        this.uploadsPerIp = new KeyedRateLimiter(uploadsPerIpPerMinute, uploadBurst, maximumKeys);
+        this.loginsPerUsername = new KeyedRateLimiter(loginsPerUsernamePerMinute, loginBurst, maximumKeys);
+        this.loginsPerIp = new KeyedRateLimiter(loginsPerIpPerMinute, loginBurst, maximumKeys);
+        this.uploadPermits = new Semaphore(uploadMaxConcurrent);
+        this.loginPermits = new Semaphore(loginMaxConcurrent);
+        registerInFlightGauge(Kind.UPLOAD, uploadPermits, uploadMaxConcurrent);
+        registerInFlightGauge(Kind.LOGIN, loginPermits, loginMaxConcurrent);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return enabled == false || kindOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Kind kind = kindOf(request);
+        long waitNanos = kind == Kind.UPLOAD ? admitUpload(request) : admitLogin(request);
+        if (waitNanos > 0) {
+            reject(response, kind, "rate", waitNanos);
+            return;
+        }
+
+        Semaphore permits = kind == Kind.UPLOAD ? uploadPermits : loginPermits;
+        if (permits.tryAcquire() == false) {
+            reject(response, kind, "concurrency", TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // 비동기 처리(board.execution.mode=async)는 작업이 끝날 때까지 자리를 차지한다.
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    // 로그인한 사용자 기준으로 먼저 보고, 통과하면 IP 기준으로 본다.
+    private long admitUpload(HttpServletRequest request) {
+        long now = clock.getAsLong();
+        long wait = uploadsPerUser.tryAcquire(currentUsername(), now);
+        if (wait > 0) {
+            return wait;
+        }
+        return uploadsPerIp.tryAcquire(request.getRemoteAddr(), now);
+    }
+
+    // 같은 계정으로 비밀번호를 바꿔가며 시도하는 요청과 한 IP에서 여러 계정을 시도하는 요청을 각각 막는다.
+    private long admitLogin(HttpServletRequest request) {
+        long now = clock.getAsLong();
+        long wait = loginsPerIp.tryAcquire(request.getRemoteAddr(), now);
+        if (wait > 0) {
+            return wait;
+        }
+        String parameter = "/login".equals(pathOf(request)) ? "username" : "email"; // 로그인 폼 / 회원가입 폼
+        String username = request.getParameter(parameter);
+        return loginsPerUsername.tryAcquire(username == null ? null : username.trim().toLowerCase(), now);
+    }
+
+    private void reject(HttpServletResponse response, Kind kind, String reason, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        Counter.builder("admission.rejected")
+                .tag("kind", kind.tag())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.debug("요청 거절 : kind={} reason={} retryAfter={}s", kind.tag(), reason, retryAfterSeconds);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getOutputStream().write("요청이 많습니다. 잠시 후 다시 시도해주세요.".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void registerInFlightGauge(Kind kind, Semaphore permits, int maxConcurrent) {
+        Gauge.builder("admission.in.flight", permits, p -> maxConcurrent - p.availablePermits())
+                .tag("kind", kind.tag())
+                .register(meterRegistry);
+    }
+
+    static Kind kindOf(HttpServletRequest request) {
+        if ("POST".equals(request.getMethod()) == false) {
+            return null;
+        }
+        String path = pathOf(request);
+        if (path.startsWith("/boardwrite")) {
+            return Kind.UPLOAD;
+        }
+        if ("/login".equals(path) || "/user".equals(path)) {
+            return Kind.LOGIN;
+        }
+        return null;
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    private static class ReleasingListener implements AsyncListener {
+
+        private final Runnable release;
+
+        ReleasingListener(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
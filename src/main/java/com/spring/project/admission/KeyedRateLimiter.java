@@ -0,0 +1,44 @@
+package com.spring.project.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 키(IP, 사용자)별 토큰 버킷
+ *
+ * 버킷은 Caffeine 캐시에 두고 burst 만큼의 시간 동안 쓰이지 않으면 지운다. (그때쯤이면 버킷이 가득 차 있으므로 지워도 결과가 같다.)
+ * 키 수는 maximumKeys로 제한해서 IP를 바꿔가며 보내는 요청에도 메모리가 늘어나지 않게 한다.
+ */
+final class KeyedRateLimiter {
+
+    private final long emissionIntervalNanos;
+
+    private final int burst;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    /**
+     * @param permitsPerMinute 분당 허용 요청 수 (0 이하면 제한 없음)
+     * @param burst            쉬고 있다가 한 번에 보낼 수 있는 요청 수
+     */
+    KeyedRateLimiter(int permitsPerMinute, int burst, long maximumKeys) {
+        this.emissionIntervalNanos = permitsPerMinute > 0 ? TimeUnit.MINUTES.toNanos(1) / permitsPerMinute : 0;
+        this.burst = Math.max(burst, 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Math.max(emissionIntervalNanos * this.burst, 1), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    /**
+     * @return 0이면 허용, 아니면 기다려야 하는 시간(ns)
+     */
+    long tryAcquire(String key, long nowNanos) {
+        if (emissionIntervalNanos == 0 || key == null) {
+            return 0;
+        }
+        return buckets.get(key, k -> new TokenBucket(emissionIntervalNanos, burst, nowNanos)).tryAcquire(nowNanos);
+    }
+}
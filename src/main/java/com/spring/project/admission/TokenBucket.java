@@ -0,0 +1,43 @@
+package com.spring.project.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 토큰 버킷 (GCRA 방식)
+ *
+ * 남은 토큰 수를 세지 않고 "버킷이 다시 빌 시각(theoretical arrival time)" 하나만 AtomicLong에 저장한다.
+ * 요청이 올 때마다 그 시각을 emissionInterval 만큼 뒤로 미루고, 현재 시각보다 burst 개 이상 앞서게 되면 거절한다.
+ * 락 없이 CAS 한 번으로 끝나고, 버킷을 채우는 별도 스레드(타이머)도 필요 없다.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos; // 토큰 하나가 다시 채워지는 시간
+
+    private final long burstNanos; // 한 번에 몰아서 쓸 수 있는 토큰 수 x emissionIntervalNanos
+
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(long emissionIntervalNanos, int burst, long nowNanos) {
+        this.emissionIntervalNanos = emissionIntervalNanos;
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 토큰 하나를 꺼낸다.
+     * @return 0이면 허용, 아니면 다음 토큰이 생길 때까지 기다려야 하는 시간(ns)
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long allowedAt = next - burstNanos;
+            if (allowedAt > nowNanos) {
+                return allowedAt - nowNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.spring.project.bulk;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.spring.project.changelog.ChangeLogWriter;
+import com.spring.project.changelog.ChangeType;
+import com.spring.project.dto.BoardBulkRow;
+import com.spring.project.pagecache.BoardPageCache;
+import com.spring.project.search.BoardSearchIndex;
+import com.spring.project.service.BoardSummaryWriter;
+import com.spring.project.storage.AttachmentStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 게시글 대량 import / export
+ *
+ * import : NDJSON / CSV를 한 줄씩 읽어 board.bulk.batch-size 개씩 모은 뒤
+ *          "INSERT ... VALUES (...), (...), ..." 여러 행 INSERT 한 번으로 넣는다. (배치마다 트랜잭션 하나)
+ *          IDENTITY 키 때문에 Hibernate 배치 INSERT가 꺼지는 문제를 피하기 위해 JPA를 거치지 않고 JDBC로 직접 넣는다.
+ * export : 게시글 + 첨부파일을 LEFT JOIN 한 번으로 board.bulk.fetch-size 행씩 커서로 읽으면서 바로 NDJSON으로 내보낸다.
+ *
+ * 둘 다 한 배치(import) / 게시글 하나(export) 분량만 메모리에 올리므로 행 수와 상관없이 메모리 사용량이 일정하다.
+ */
+@Slf4j
+@Service
+public class BoardBulkService {
+
+    // 여러 행 INSERT 한 문장의 placeholder 수 제한(65535)을 넘지 않도록
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String INSERT_BOARD = "INSERT INTO t_jpa_board (title, content, hit_cnt, creator_id, created_datetime) VALUES ";
+
+    private static final String INSERT_FILE = "INSERT INTO t_jpa_file (board_idx, original_fill_name, stored_file_path, file_size, checksum, creator_id, created_datetime) VALUES ";
+
+    // 게시글 순서(PK)대로 읽으므로 같은 게시글의 첨부파일 행은 연속으로 나온다. (삭제 표시된 게시글 / 첨부파일은 빼고)
+    private static final String EXPORT_SQL =
+            "SELECT b.board_idx, b.title, b.content, b.hit_cnt, b.creator_id, b.created_datetime, " +
+            "f.original_fill_name, f.stored_file_path, f.file_size, f.checksum " +
+            "FROM t_jpa_board b LEFT JOIN t_jpa_file f ON f.board_idx = b.board_idx AND f.deleted_datetime IS NULL " +
+            "WHERE b.deleted_datetime IS NULL " +
+            "ORDER BY b.board_idx";
+
+    private final int batchSize;
+
+    private final int fetchSize;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    BoardSearchIndex boardSearchIndex;
+
+    @Autowired
+    BoardSummaryWriter boardSummaryWriter;
+
+    @Autowired
+    BoardPageCache boardPageCache;
+
+    @Autowired
+    ChangeLogWriter changeLogWriter;
+
+    @Autowired
+    AttachmentStore attachmentStore;
+
+    public BoardBulkService(@Value("${board.bulk.batch-size:500}") int batchSize,
+                            @Value("${board.bulk.fetch-size:1000}") int fetchSize) {
+        this.batchSize = Math.min(Math.max(batchSize, 1), MAX_BATCH_SIZE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * NDJSON (한 줄에 BoardBulkRow 하나) import
+     * @return 저장된 게시글 수
+     */
+    public long importNdjson(InputStream in) throws IOException {
+        try (MappingIterator<BoardBulkRow> rows = objectMapper.readerFor(BoardBulkRow.class).readValues(in)) {
+            return importRows(rows);
+        }
+    }
+
+    /**
+     * CSV (헤더 포함, BoardCsvReader 참고) import
+     * @return 저장된 게시글 수
+     */
+    public long importCsv(InputStream in) throws IOException {
+        try (BoardCsvReader rows = new BoardCsvReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return importRows(rows);
+        } catch (IllegalArgumentException e) { // 헤더가 없는 경우
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 전체 게시글을 NDJSON으로 내보낸다.
+     * @return 내보낸 게시글 수
+     */
+    public long exportNdjson(OutputStream out) throws IOException {
+        // 결과 전체를 드라이버 메모리에 올리지 않도록 fetch size를 준 전용 JdbcTemplate 사용
+        JdbcTemplate cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+        cursor.setFetchSize(fetchSize);
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        ExportHandler handler = new ExportHandler(generator);
+        try {
+            cursor.query(EXPORT_SQL, handler);
+            handler.finish();
+        } catch (UncheckedIOException e) { // 클라이언트 연결 끊김 등
+            throw e.getCause();
+        } finally {
+            generator.close();
+        }
+        return handler.count;
+    }
+
+    private long importRows(Iterator<BoardBulkRow> rows) {
+        long started = System.currentTimeMillis();
+        List<BoardBulkRow> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        try {
+            while (rows.hasNext()) {
+                batch.add(rows.next());
+                if (batch.size() == batchSize) {
+                    insertBatch(batch);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            if (batch.isEmpty() == false) {
+                insertBatch(batch);
+                count += batch.size();
+            }
+        } catch (IllegalArgumentException e) {
+            // 앞의 배치는 이미 커밋되었으므로 몇 건까지 들어갔는지 알려준다.
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, count + "건 저장 후 잘못된 행 : " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof JsonProcessingException) { // MappingIterator는 파싱 오류를 RuntimeException으로 감싼다.
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, count + "건 저장 후 잘못된 행 : " + e.getCause().getMessage(), e);
+            }
+            throw e;
+        } finally {
+            if (count > 0) {
+                log.info("게시글 import : {}건, {}ms", count, System.currentTimeMillis() - started);
+                // import한 게시글은 검색 색인을 거치지 않았으므로 다시 만든다.
+                boardSearchIndex.rebuildAsync();
+                boardPageCache.invalidateLists();
+            }
+        }
+        return count;
+    }
+
+    private void insertBatch(List<BoardBulkRow> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Integer> boardIdxs = insertBoards(batch);
+            insertFiles(batch, boardIdxs);
+            // 목록용 요약 행도 같은 트랜잭션에서 배치 단위로 만든다.
+            boardSummaryWriter.refresh(boardIdxs);
+            changeLogWriter.append(ChangeType.BOARD, boardIdxs);
+        });
+    }
+
+    // 게시글 여러 행 INSERT, 발급된 boardIdx를 입력 순서대로 반환
+    private List<Integer> insertBoards(List<BoardBulkRow> batch) {
+        String sql = multiRowInsert(INSERT_BOARD, 5, batch.size());
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.execute((ConnectionCallback<List<Integer>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                int i = 1;
+                for (BoardBulkRow row : batch) {
+                    ps.setString(i++, row.getTitle());
+                    ps.setString(i++, row.getContent());
+                    ps.setInt(i++, row.getHitCnt());
+                    ps.setString(i++, row.getCreatorId() != null ? row.getCreatorId() : "admin");
+                    ps.setTimestamp(i++, Timestamp.valueOf(row.getCreatedDatetime() != null ? row.getCreatedDatetime() : now));
+                }
+                ps.executeUpdate();
+
+                List<Integer> boardIdxs = new ArrayList<>(batch.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        boardIdxs.add(keys.getInt(1));
+                    }
+                }
+                if (boardIdxs.size() != batch.size()) {
+                    throw new IllegalStateException("발급된 키 수(" + boardIdxs.size() + ")가 행 수(" + batch.size() + ")와 다릅니다.");
+                }
+                return boardIdxs;
+            }
+        });
+    }
+
+    private void insertFiles(List<BoardBulkRow> batch, List<Integer> boardIdxs) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object> args = new ArrayList<>();
+        int rows = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            BoardBulkRow row = batch.get(i);
+            if (row.getFiles() == null) {
+                continue;
+            }
+            for (BoardBulkRow.File file : row.getFiles()) {
+                args.add(boardIdxs.get(i));
+                args.add(file.getOriginalFileName());
+                // 다운로드 / 삭제가 저장소 밖의 파일을 건드리지 않도록 root 아래 경로만 받는다. (아니면 400)
+                args.add(attachmentStore.normalizeStoredFilePath(file.getStoredFilePath()));
+                args.add(file.getFileSize());
+                args.add(file.getChecksum());
+                args.add(row.getCreatorId() != null ? row.getCreatorId() : "admin");
+                args.add(Timestamp.valueOf(row.getCreatedDatetime() != null ? row.getCreatedDatetime() : now));
+                rows++;
+                if (rows == batchSize) {
+                    jdbcTemplate.update(multiRowInsert(INSERT_FILE, 7, rows), args.toArray());
+                    args.clear();
+                    rows = 0;
+                }
+            }
+        }
+        if (rows > 0) {
+            jdbcTemplate.update(multiRowInsert(INSERT_FILE, 7, rows), args.toArray());
+        }
+    }
+
+    // "INSERT ... VALUES (?, ?), (?, ?), ..."
+    private static String multiRowInsert(String prefix, int columns, int rows) {
+        StringBuilder group = new StringBuilder("(");
+        for (int i = 0; i < columns; i++) {
+            group.append(i == 0 ? "?" : ", ?");
+        }
+        group.append(')');
+
+        StringBuilder sql = new StringBuilder(prefix.length() + rows * (group.length() + 2));
+        sql.append(prefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(group);
+        }
+        return sql.toString();
+    }
+
+    // 같은 board_idx 행들을 게시글 하나로 묶어서 한 줄씩 쓴다.
+    private class ExportHandler implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+
+        // 게시글마다 flush 하지 않고 generator 버퍼가 찰 때만 내보낸다.
+        private final ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        private BoardBulkRow current;
+
+        private long count;
+
+        ExportHandler(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            int boardIdx = rs.getInt("board_idx");
+            if (current == null || current.getBoardIdx() != boardIdx) {
+                finish();
+                current = new BoardBulkRow();
+                current.setBoardIdx(boardIdx);
+                current.setTitle(rs.getString("title"));
+                current.setContent(rs.getString("content"));
+                current.setHitCnt(rs.getInt("hit_cnt"));
+                current.setCreatorId(rs.getString("creator_id"));
+                Timestamp createdDatetime = rs.getTimestamp("created_datetime");
+                current.setCreatedDatetime(createdDatetime != null ? createdDatetime.toLocalDateTime() : null);
+            }
+            String storedFilePath = rs.getString("stored_file_path");
+            if (storedFilePath != null) { // LEFT JOIN : 첨부파일이 없는 게시글
+                BoardBulkRow.File file = new BoardBulkRow.File();
+                file.setOriginalFileName(rs.getString("original_fill_name"));
+                file.setStoredFilePath(storedFilePath);
+                file.setFileSize(rs.getLong("file_size"));
+                file.setChecksum(rs.getString("checksum"));
+                current.getFiles().add(file);
+            }
+        }
+
+        void finish() {
+            if (current == null) {
+                return;
+            }
+            try {
+                writer.writeValue(generator, current);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            current = null;
+            count++;
+        }
+    }
+}
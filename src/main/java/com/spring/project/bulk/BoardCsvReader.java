@@ -0,0 +1,140 @@
+package com.spring.project.bulk;
+
+import com.spring.project.dto.BoardBulkRow;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 게시글 CSV를 한 줄씩 읽는 스트리밍 파서 (RFC 4180)
+ *
+ * 첫 줄은 헤더이고 title, content, hitCnt, creatorId, createdDatetime(ISO-8601) 컬럼을 이름으로 찾는다. (순서 무관, 없는 컬럼은 기본값)
+ * 큰따옴표로 감싼 값 안의 쉼표 / 줄바꿈 / "" 를 지원한다. CSV로는 첨부파일을 넣을 수 없다.
+ */
+public class BoardCsvReader implements Iterator<BoardBulkRow>, Closeable {
+
+    private final BufferedReader reader;
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    private List<String> next;
+
+    private long recordNumber;
+
+    public BoardCsvReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV 헤더가 없습니다.");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        next = readRecord();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public BoardBulkRow next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        List<String> record = next;
+        long number = recordNumber; // 헤더를 포함한 행 번호
+        try {
+            next = readRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        BoardBulkRow row = new BoardBulkRow();
+        row.setTitle(value(record, "title"));
+        row.setContent(value(record, "content"));
+        row.setCreatorId(value(record, "creatorId"));
+        try {
+            String hitCnt = value(record, "hitCnt");
+            if (hitCnt != null && hitCnt.isEmpty() == false) {
+                row.setHitCnt(Integer.parseInt(hitCnt.trim()));
+            }
+            String createdDatetime = value(record, "createdDatetime");
+            if (createdDatetime != null && createdDatetime.isEmpty() == false) {
+                row.setCreatedDatetime(LocalDateTime.parse(createdDatetime.trim()));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("CSV " + number + "번째 행 형식 오류 : " + e.getMessage(), e);
+        }
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String value(List<String> record, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    // 레코드 하나(따옴표 안의 줄바꿈 포함)를 읽는다. 빈 줄은 건너뛰고, 더 읽을 것이 없으면 null
+    private List<String> readRecord() throws IOException {
+        List<String> record;
+        do {
+            record = readLine();
+        } while (record != null && record.size() == 1 && record.get(0).isEmpty());
+        return record;
+    }
+
+    private List<String> readLine() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (any == false) {
+            return null;
+        }
+        fields.add(field.toString());
+        recordNumber++;
+        return fields;
+    }
+}
@@ -0,0 +1,290 @@
+package com.spring.project.changelog;
+
+import com.spring.project.config.CacheConfig;
+import com.spring.project.entity.Board;
+import com.spring.project.pagecache.BoardPageCache;
+import com.spring.project.repository.BoardRepository;
+import com.spring.project.search.BoardSearchIndex;
+import com.spring.project.security.AuthTokenService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 변경 로그를 읽어서 이 노드의 캐시를 지운다. (외부 메시지 브로커 없이 DB만으로 노드 간 캐시 일관성 유지)
+ *
+ * 1. 마지막으로 읽은 seq(watermark) 이후의 행만 seq 순으로 읽는다. (PK 범위 조회라 행이 많아도 싸다.)
+ * 2. AUTO_INCREMENT 값은 커밋 순서가 아니라 INSERT 순서로 발급되므로, 먼저 발급받은 트랜잭션이 늦게 커밋되면
+ *    watermark 아래에 빈 번호(gap)가 생긴다. 빈 번호는 changelog.gap-timeout-ms 동안 따로 기억해 두고 매번 다시 확인한다.
+ *    (그 시간이 지나도 없으면 롤백되었거나 건너뛴 번호로 보고 잊는다.)
+ * 3. 한 번에 읽은 변경은 합쳐서 반영한다. 같은 게시글이 여러 번 바뀌어도 한 번만 지우고, 목록 페이지 버전도 한 번만 올린다.
+ *
+ * 자기 노드가 남긴 행은 변경할 때 이미 반영했으므로 건너뛴다.
+ */
+@Slf4j
+@Component
+public class ChangeLogPoller {
+
+    private static final String SELECT_AFTER =
+            "SELECT seq, entity_type, entity_key, origin_node FROM t_jpa_change_log WHERE seq > :watermark ORDER BY seq LIMIT :limit";
+
+    private static final String SELECT_GAPS =
+            "SELECT seq, entity_type, entity_key, origin_node FROM t_jpa_change_log WHERE seq IN (:seqs)";
+
+    private static final String SELECT_MAX_SEQ = "SELECT COALESCE(MAX(seq), 0) FROM t_jpa_change_log";
+
+    private static final String PURGE_SQL = "DELETE FROM t_jpa_change_log WHERE created_datetime < ?";
+
+    // 기억해 둘 빈 번호의 최대 개수 (AUTO_INCREMENT가 크게 건너뛰는 경우 대비)
+    private static final int MAX_GAPS = 10_000;
+
+    // 게시글이 이보다 많이 바뀌었으면(import 등) 하나씩 다시 색인하지 않고 색인 전체를 다시 만든다.
+    private static final int REINDEX_LIMIT = 500;
+
+    private static final RowMapper<ChangeRow> ROW_MAPPER = (rs, rowNum) -> new ChangeRow(
+            rs.getLong("seq"), rs.getString("entity_type"), rs.getString("entity_key"), rs.getString("origin_node"));
+
+    // 빈 번호 -> 처음 발견한 시각(ms)
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    private long watermark = -1; // 첫 poll 때 현재 최대값으로 정한다. (기동 직후에는 캐시가 비어 있으므로 이전 변경은 필요 없음)
+
+    @Autowired
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    ChangeLogWriter changeLogWriter;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    BoardPageCache boardPageCache;
+
+    @Autowired
+    BoardSearchIndex boardSearchIndex;
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    AuthTokenService authTokenService;
+
+    @Value("${changelog.enabled:true}")
+    boolean enabled;
+
+    @Value("${changelog.batch-size:1000}")
+    int batchSize;
+
+    @Value("${changelog.gap-timeout-ms:10000}")
+    long gapTimeoutMillis;
+
+    @Value("${changelog.retention-ms:3600000}")
+    long retentionMillis;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("changelog.gaps", this, poller -> poller.gapCount()).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${changelog.poll-interval-ms:1000}")
+    public void scheduledPoll() {
+        if (enabled == false) {
+            return;
+        }
+        try {
+            poll();
+        } catch (DataAccessException e) {
+            log.warn("변경 로그 조회 실패, 다음 주기에 재시도", e);
+        }
+    }
+
+    /**
+     * 새 변경을 읽어서 반영한다.
+     * @return 이번에 반영한 다른 노드의 변경 수
+     */
+    public synchronized int poll() {
+        if (watermark < 0) {
+            watermark = namedParameterJdbcTemplate.getJdbcTemplate().queryForObject(SELECT_MAX_SEQ, Long.class);
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        List<ChangeRow> rows = new ArrayList<>();
+        if (gaps.isEmpty() == false) {
+            rows.addAll(namedParameterJdbcTemplate.query(SELECT_GAPS, new MapSqlParameterSource("seqs", gaps.keySet()), ROW_MAPPER));
+        }
+        List<ChangeRow> page;
+        do {
+            page = namedParameterJdbcTemplate.query(SELECT_AFTER, new MapSqlParameterSource()
+                    .addValue("watermark", watermark)
+                    .addValue("limit", batchSize), ROW_MAPPER);
+            for (ChangeRow row : page) {
+                for (long missing = watermark + 1; missing < row.seq && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                watermark = row.seq;
+            }
+            rows.addAll(page);
+        } while (page.size() == batchSize);
+
+        Invalidation invalidation = new Invalidation();
+        for (ChangeRow row : rows) {
+            gaps.remove(row.seq);
+            if (changeLogWriter.getNodeId().equals(row.originNode) == false) {
+                invalidation.add(row);
+            }
+        }
+        expireGaps(now);
+        apply(invalidation);
+        return invalidation.count;
+    }
+
+    // 다른 노드도 같은 행을 지우지만 조건이 같으므로 문제없다.
+    @Scheduled(fixedDelayString = "${changelog.purge-interval-ms:600000}")
+    public void purge() {
+        if (enabled == false) {
+            return;
+        }
+        try {
+            int deleted = namedParameterJdbcTemplate.getJdbcTemplate()
+                    .update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now().minusNanos(retentionMillis * 1_000_000)));
+            if (deleted > 0) {
+                log.debug("변경 로그 {}건 정리", deleted);
+            }
+        } catch (DataAccessException e) {
+            log.warn("변경 로그 정리 실패", e);
+        }
+    }
+
+    private synchronized int gapCount() {
+        return gaps.size();
+    }
+
+    private void expireGaps(long now) {
+        Iterator<Map.Entry<Long, Long>> iterator = gaps.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue() >= gapTimeoutMillis) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void apply(Invalidation invalidation) {
+        if (invalidation.count == 0) {
+            return;
+        }
+        Cache boards = cacheManager.getCache(CacheConfig.BOARDS);
+        Cache users = cacheManager.getCache(CacheConfig.USERS);
+        for (Integer boardIdx : invalidation.boards) {
+            if (boards != null) {
+                boards.evict(boardIdx);
+            }
+        }
+        for (String email : invalidation.users) {
+            if (users != null) {
+                users.evict(email);
+            }
+        }
+        for (String token : invalidation.tokens) {
+            authTokenService.revokeRemote(token);
+        }
+        // 목록 페이지는 내용이 바뀐 게시글이 있을 때만 버전을 한 번 올린다. (조회수만 바뀐 것은 BoardPageCache와 같이 무시)
+        // 상세 페이지는 BOARDS 캐시에서 지운 게시글을 다시 읽으면서 버전이 바뀐다.
+        if (invalidation.edited.isEmpty() == false) {
+            boardPageCache.invalidateLists();
+        }
+        reindex(invalidation.edited);
+        meterRegistry.counter("changelog.applied").increment(invalidation.count);
+    }
+
+    // 검색 색인도 노드마다 메모리에 있으므로 내용이 바뀐 게시글은 DB에서 다시 읽어 색인한다.
+    private void reindex(Set<Integer> boardIdxs) {
+        if (boardIdxs.size() > REINDEX_LIMIT) {
+            boardSearchIndex.rebuildAsync();
+            return;
+        }
+        for (Integer boardIdx : boardIdxs) {
+            Optional<Board> board = boardRepository.findById(boardIdx);
+            if (board.isPresent()) {
+                boardSearchIndex.index(boardIdx, board.get().getTitle(), board.get().getContent());
+            } else {
+                boardSearchIndex.remove(boardIdx);
+            }
+        }
+    }
+
+    private static class ChangeRow {
+
+        private final long seq;
+
+        private final String entityType;
+
+        private final String entityKey;
+
+        private final String originNode;
+
+        ChangeRow(long seq, String entityType, String entityKey, String originNode) {
+            this.seq = seq;
+            this.entityType = entityType;
+            this.entityKey = entityKey;
+            this.originNode = originNode;
+        }
+    }
+
+    // 한 번에 읽은 변경을 합친 결과
+    private static class Invalidation {
+
+        private final Set<Integer> boards = new HashSet<>(); // BOARDS 캐시에서 지울 게시글
+
+        private final Set<Integer> edited = new HashSet<>(); // 내용이 바뀌어 다시 색인할 게시글 (조회수만 바뀐 글 제외)
+
+        private final Set<String> users = new HashSet<>();
+
+        private final Set<String> tokens = new HashSet<>(); // 로그아웃한 토큰 (토큰ID:만료 시각)
+
+        private int count;
+
+        void add(ChangeRow row) {
+            count++;
+            if (ChangeType.USER.name().equals(row.entityType)) {
+                users.add(row.entityKey);
+                return;
+            }
+            if (ChangeType.TOKEN.name().equals(row.entityType)) {
+                tokens.add(row.entityKey);
+                return;
+            }
+            Integer boardIdx = Integer.valueOf(row.entityKey);
+            boards.add(boardIdx);
+            if (ChangeType.BOARD.name().equals(row.entityType)) {
+                edited.add(boardIdx);
+            }
+        }
+    }
+}
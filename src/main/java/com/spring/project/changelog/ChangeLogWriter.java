@@ -0,0 +1,59 @@
+package com.spring.project.changelog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 변경 로그(t_jpa_change_log) 기록
+ *
+ * 데이터를 바꾼 트랜잭션 안에서만 호출할 수 있다. (MANDATORY)
+ * 그래서 커밋된 변경에는 반드시 로그가 있고, 롤백되면 로그도 남지 않는다.
+ */
+@Slf4j
+@Component
+public class ChangeLogWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO t_jpa_change_log (entity_type, entity_key, origin_node, created_datetime) VALUES (?, ?, ?, ?)";
+
+    private final String nodeId;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    public ChangeLogWriter(@Value("${changelog.node-id:}") String nodeId) {
+        // 지정하지 않으면 기동할 때마다 새 ID (재시작한 노드는 캐시가 비어 있으므로 이전 ID와 구분할 필요가 없다.)
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId.trim() : UUID.randomUUID().toString();
+        log.info("변경 로그 노드 ID : {}", this.nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(ChangeType type, Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            batch.add(new Object[]{type.name(), String.valueOf(key), nodeId, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+}
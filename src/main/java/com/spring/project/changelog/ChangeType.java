@@ -0,0 +1,9 @@
+package com.spring.project.changelog;
+
+// 변경 로그 종류 (t_jpa_change_log.entity_type)
+public enum ChangeType {
+    BOARD, // 게시글 저장 / 삭제 / 첨부파일 삭제 / import, key = boardIdx
+    BOARD_HITS, // 조회수 반영, key = boardIdx
+    USER, // 회원 저장, key = email
+    TOKEN // 로그아웃한 인증 토큰 (stateless 모드), key = 토큰ID:만료 시각(epoch 초)
+}
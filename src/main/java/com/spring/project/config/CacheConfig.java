@@ -0,0 +1,63 @@
+package com.spring.project.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spring.project.pagecache.CachedPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로컬 캐시 설정
+ *
+ * Caffeine = 크기 제한을 넘으면 W-TinyLFU 정책으로 자주 쓰이지 않는 항목부터 내보내는 인메모리 캐시
+ * 캐시마다 최대 크기와 TTL을 따로 두고, recordStats()로 히트/미스/eviction 통계를 남긴다.
+ * (actuator가 캐시를 micrometer에 등록하므로 /actuator/metrics/cache.gets 등으로 확인 가능)
+ */
+@EnableCaching
+@Configuration(proxyBeanMethods = false)
+public class CacheConfig {
+
+    // 게시글 상세 (첨부파일 포함), key = boardIdx
+    public static final String BOARDS = "boards";
+
+    // 로그인 사용자 정보, key = email
+    public static final String USERS = "users";
+
+    // 렌더링된 게시판 페이지 (BoardPageCache), 항목 수가 아니라 본문 바이트 합으로 크기를 제한한다.
+    public static final String PAGES = "pages";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.boards.maximum-size:10000}") long boardsMaximumSize,
+                                     @Value("${cache.boards.ttl-seconds:600}") long boardsTtlSeconds,
+                                     @Value("${cache.users.maximum-size:10000}") long usersMaximumSize,
+                                     @Value("${cache.users.ttl-seconds:300}") long usersTtlSeconds,
+                                     @Value("${cache.pages.maximum-bytes:33554432}") long pagesMaximumBytes,
+                                     @Value("${cache.pages.ttl-seconds:600}") long pagesTtlSeconds) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(Arrays.asList(
+                caffeineCache(BOARDS, boardsMaximumSize, boardsTtlSeconds),
+                caffeineCache(USERS, usersMaximumSize, usersTtlSeconds),
+                new CaffeineCache(PAGES, Caffeine.newBuilder()
+                        .maximumWeight(pagesMaximumBytes)
+                        .weigher((Object key, Object value) -> ((CachedPage) value).getBody().length)
+                        .expireAfterWrite(pagesTtlSeconds, TimeUnit.SECONDS)
+                        .recordStats()
+                        .build())));
+        return cacheManager;
+    }
+
+    private static CaffeineCache caffeineCache(String name, long maximumSize, long ttlSeconds) {
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build());
+    }
+}
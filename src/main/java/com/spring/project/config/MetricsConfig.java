@@ -0,0 +1,32 @@
+package com.spring.project.config;
+
+import com.spring.project.metrics.SqlStatementCounter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 메트릭 설정 (/actuator/prometheus 로 수집, ADMIN 권한)
+ *
+ * - @Timed : BoardServiceImpl(board.service), FileUtils.parseFileInfo(board.upload), UserService(user.load, user.save)
+ * - DownloadUtils : board.download, board.download.bytes
+ * - RequestMetricsFilter : 요청당 SQL 문 수, 느린 요청 로그
+ * - HikariCP 커넥션 풀 게이지(hikaricp.connections.*)와 http.server.requests는 스프링 부트가 자동으로 등록한다.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    // @Timed 애노테이션을 처리하는 aspect (spring-boot-starter-aop 필요)
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+}
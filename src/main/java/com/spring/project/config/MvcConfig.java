@@ -1,12 +1,36 @@
 package com.spring.project.config;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
 
-@Configuration
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.regex.Pattern;
+
+@Configuration(proxyBeanMethods = false)
 public class MvcConfig implements WebMvcConfigurer {
 
+    // 정적 파일 폴더 (src/main/resources/static 하위, WebSecurityConfig에서 인증을 무시하는 경로와 같다)
+    private static final String[] STATIC_DIRECTORIES = {"css", "js", "images", "fonts", "vendor", "assets"};
+
+    // 내용 해시가 들어간 URL은 내용이 바뀌면 URL도 바뀌므로 1년 동안 다시 묻지 않게 한다.
+    private static final String VERSIONED_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // 해시 없이 요청한 URL은 매번 Last-Modified로 확인한다. (304)
+    private static final String UNVERSIONED_CACHE_CONTROL = "no-cache";
+
+    // VersionResourceResolver(content 전략)가 붙이는 파일 이름의 -{MD5} 부분 (jquery-3.2.1.min.js 같은 이름과 구분)
+    private static final Pattern CONTENT_VERSION = Pattern.compile("-[0-9a-f]{32}\\.[^/]*$");
+
     // 요청 - 뷰 연결
     public void addViewControllers(ViewControllerRegistry registry) {
         registry.addViewController("/").setViewName("main");
@@ -16,4 +40,46 @@ public class MvcConfig implements WebMvcConfigurer {
         registry.addViewController("/board").setViewName("board/board");
         registry.addViewController("/write").setViewName("board/write");
     }
+
+    /**
+     * 정적 파일 resource chain
+     *
+     * 1. VersionResourceResolver : css/main.css -> css/main-{내용 MD5}.css 로 URL을 바꿔서 내려주고, 요청이 오면 원래 파일을 찾는다.
+     *    (CSS 안의 url(...)도 CssLinkResourceTransformer가 같은 방식으로 바꾼다.)
+     * 2. EncodedResourceResolver : Accept-Encoding에 맞는 미리 압축된 파일(.br / .gz)이 있으면 그것을 보낸다.
+     *    압축 파일은 빌드 때 만든다. (build.gradle processResources)
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : STATIC_DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    // Cache-Control은 URL에 해시가 있는지에 따라 다르게 준다. (ResourceHttpRequestHandler는 이 값을 덮어쓰지 않음)
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        String[] patterns = new String[STATIC_DIRECTORIES.length];
+        for (int i = 0; i < STATIC_DIRECTORIES.length; i++) {
+            patterns[i] = "/" + STATIC_DIRECTORIES[i] + "/**";
+        }
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                boolean versioned = CONTENT_VERSION.matcher(request.getRequestURI()).find();
+                response.setHeader(HttpHeaders.CACHE_CONTROL, versioned ? VERSIONED_CACHE_CONTROL : UNVERSIONED_CACHE_CONTROL);
+                return true;
+            }
+        }).addPathPatterns(patterns);
+    }
+
+    // 템플릿의 @{/css/...} 링크를 해시가 들어간 URL로 바꿔준다. (response.encodeURL)
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
 }
@@ -0,0 +1,24 @@
+package com.spring.project.config;
+
+import com.spring.project.security.BoundedPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * 회원가입(UserService)과 로그인(WebSecurityConfig)이 함께 쓰는 PasswordEncoder
+ * WebSecurityConfig가 UserService를 주입받기 때문에, 순환 참조가 생기지 않도록 별도 설정 클래스에 둔다.
+ */
+@Configuration(proxyBeanMethods = false)
+public class PasswordEncoderConfig {
+
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength, // BCrypt 반복 횟수 = 2^strength
+                                           @Value("${security.bcrypt.threads:0}") int threads, // 0이면 CPU 수
+                                           @Value("${security.bcrypt.queue-capacity:256}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity);
+    }
+}
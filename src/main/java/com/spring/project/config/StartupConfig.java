@@ -0,0 +1,30 @@
+package com.spring.project.config;
+
+import com.spring.project.changelog.ChangeLogPoller;
+import com.spring.project.service.BoardPurger;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * 빠른 기동(faststart 프로파일, spring.main.lazy-initialization=true) 설정
+ *
+ * 대부분의 빈은 처음 쓰일 때 만들지만, 첫 요청이 기다리면 안 되는 DataSource와 EntityManagerFactory는 기동 중에 만든다.
+ * (EntityManagerFactory는 spring.data.jpa.repositories.bootstrap-mode=deferred 로 백그라운드에서 만들어진다.)
+ * 요청이 쓰지 않고 @Scheduled로만 도는 빈(ChangeLogPoller, BoardPurger)도 만들어져야 스케줄이 등록되므로 기동 중에 만든다.
+ *
+ * proxyBeanMethods = false인 설정 클래스(이 클래스, CacheConfig, MetricsConfig, MvcConfig, PasswordEncoderConfig)는
+ * @Bean 메소드끼리 서로 호출하지 않으므로 CGLIB 프록시 클래스를 만들지 않는다. (기동 시간 단축)
+ */
+@Configuration(proxyBeanMethods = false)
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerDataAccessBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class,
+                ChangeLogPoller.class, BoardPurger.class);
+    }
+}
@@ -1,14 +1,22 @@
 package com.spring.project.config;
 
+import com.spring.project.admission.AdmissionControlFilter;
+import com.spring.project.security.AuthTokenService;
+import com.spring.project.security.TokenSecurityContextRepository;
 import com.spring.project.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 
 @RequiredArgsConstructor // final이 붙거나 @NotNull이 붙은 필드의 생성자를 자동 생성해주는 lombok 어노테이션
 @EnableWebSecurity // Spring Security 활성화
@@ -18,6 +26,12 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter { // WebSecu
 
     private final UserService userService; // 유저 정보를 가져올 클래스
 
+    private final PasswordEncoder passwordEncoder; // BCrypt 인코더 (PasswordEncoderConfig에서 한 번만 생성)
+
+    private final AdmissionControlFilter admissionControlFilter; // 업로드 / 로그인 요청 수 제한
+
+    private final AuthTokenService authTokenService; // security.session.mode=stateless 일 때 쓰는 서명 토큰
+
     @Override
     public void configure(WebSecurity web) {
         // WebSecurityConfigurerAdapter를 상속받으면 오버라이드할 수 있고, 인증을 무시할 경로들을 설정해놓을 수 있다.
@@ -33,7 +47,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter { // WebSecu
                 .authorizeRequests() // 접근에 대한 인증 설정을 의미
                 .antMatchers("/login", "/signup", "/user").permitAll() // 누구나 접근 허용
                 .antMatchers("/", "/board").hasRole("USER") // USER, ADMIN만 접근 가능
-                .antMatchers("/admin").hasRole("ADMIN") // ADMIN만 접근 가능
+                .antMatchers("/admin/**", "/actuator/**").hasRole("ADMIN") // ADMIN만 접근 가능
                 .anyRequest().authenticated() // 나머지 요청들은 권한의 종류에 상관 없이 권한이 있어야 접근 가능
                 .and() // 특정 설정에 대한 구성을 완료한 후 작성
                 .formLogin() // 로그인에 관한 설정을 의미
@@ -42,7 +56,36 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter { // WebSecu
                 .and()
                 .logout() // 로그아웃에 관한 설정을 의미
                 .logoutSuccessUrl("/login") // 로그아웃 성공시 리다이렉트 주소
-                .invalidateHttpSession(true); // 로그아웃 이후 세션 전체 삭제 여부
+                .invalidateHttpSession(true) // 로그아웃 이후 세션 전체 삭제 여부
+                .and()
+                // CSRF 검사 뒤, 로그인 처리(BCrypt) 전에 요청 수를 제한한다. (로그인 사용자도 세션에서 꺼내진 뒤라 알 수 있음)
+                .addFilterBefore(admissionControlFilter, UsernamePasswordAuthenticationFilter.class);
+
+        if (authTokenService.isStateless()) {
+            // HTTP 세션을 만들지 않고 로그인 상태는 서명된 토큰 쿠키, CSRF 토큰은 쿠키(XSRF-TOKEN)에 둔다.
+            // 노드마다 세션을 들고 있지 않으므로 sticky 로드밸런싱이 필요 없고, 재배포해도 로그인이 유지된다.
+            TokenSecurityContextRepository tokenRepository = new TokenSecurityContextRepository(authTokenService);
+            http
+                    .sessionManagement()
+                    .sessionCreationPolicy(SessionCreationPolicy.STATELESS) // 로그인 전 요청 저장(RequestCache)도 하지 않음
+                    .and()
+                    .securityContext()
+                    .securityContextRepository(tokenRepository)
+                    .and()
+                    .csrf()
+                    .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
+                    .and()
+                    .logout()
+                    .addLogoutHandler(tokenRepository); // 토큰 폐기 + 쿠키 삭제
+        }
+    }
+
+    // @Component 필터는 서블릿 필터로도 자동 등록되므로, 시큐리티 필터 체인에서만 동작하도록 자동 등록을 끈다.
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(AdmissionControlFilter filter) {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
     }
 
     @Override
@@ -50,7 +93,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter { // WebSecu
         auth.userDetailsService(userService) // 유저 정보를 가져오는 서비스를 userService로 지정
                 // 해당 서비스(userService)에서는 UserDetailService를 implements해서
                 // loadUserByUsername() 구현해야함
-                .passwordEncoder(new BCryptPasswordEncoder()); // .passwordEncoder를 이용하면 평문의 비밀번호를 암호화하여 DB에 주입(별도로 DB에서 암호화를 할 필요 X)
+                .passwordEncoder(passwordEncoder); // .passwordEncoder를 이용하면 평문의 비밀번호를 암호화하여 DB에 주입(별도로 DB에서 암호화를 할 필요 X)
                 // BCrypt라는 해시 함수를 이용하여 패스워드를 암호화
     }
 }
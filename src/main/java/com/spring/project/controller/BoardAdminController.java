@@ -0,0 +1,47 @@
+package com.spring.project.controller;
+
+import com.spring.project.bulk.BoardBulkService;
+import com.spring.project.dto.BulkImportResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 게시글 대량 import / export (ADMIN 전용, WebSecurityConfig의 /admin/**)
+ *
+ * 요청 / 응답 본문을 스트림으로 바로 읽고 쓰므로 파일 크기 제한이 없다.
+ */
+@RestController
+@RequestMapping("/admin/boards")
+public class BoardAdminController {
+
+    @Autowired
+    private BoardBulkService boardBulkService;
+
+    // Content-Type: application/x-ndjson 또는 text/csv
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public BulkImportResult importBoards(HttpServletRequest request) throws IOException {
+        long started = System.currentTimeMillis();
+        long imported;
+        if (request.getContentType().startsWith("text/csv")) {
+            imported = boardBulkService.importCsv(request.getInputStream());
+        } else {
+            imported = boardBulkService.importNdjson(request.getInputStream());
+        }
+        return new BulkImportResult(imported, System.currentTimeMillis() - started);
+    }
+
+    @GetMapping("/export")
+    public void exportBoards(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; fileName=\"boards.ndjson\";");
+        boardBulkService.exportNdjson(response.getOutputStream());
+    }
+}
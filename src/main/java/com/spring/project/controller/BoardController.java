@@ -1,19 +1,26 @@
 package com.spring.project.controller;
 
+import com.spring.project.dto.BoardListDto;
 import com.spring.project.entity.Board;
 import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.entity.BoardFileRendition;
+import com.spring.project.rendition.RenditionSize;
 import com.spring.project.service.BoardService;
-import org.apache.commons.io.FileUtils;
+import com.spring.project.util.BoardRequestExecutor;
+import com.spring.project.util.DownloadUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Controller;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.servlet.ModelAndView;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
-import java.net.URLEncoder;
+import java.time.ZoneId;
 import java.util.List;
 
 @Controller
@@ -22,14 +29,47 @@ public class BoardController {
     @Autowired
     private BoardService boardService;
 
-    @GetMapping("/board")
-    public ModelAndView openBoardList() throws Exception {
-        ModelAndView mv = new ModelAndView("/board/board");
+    @Autowired
+    private DownloadUtils downloadUtils;
+
+    // board.execution.mode=async 이면 아래 핸들러들은 워커 스레드가 아닌 별도 실행기에서 돈다. (반환 타입 Object = ModelAndView 또는 DeferredResult)
+    @Autowired
+    private BoardRequestExecutor boardRequestExecutor;
 
-        List<Board> list = boardService.selectBoardList();
-        mv.addObject("list", list);
+    @GetMapping("/board")
+    public Object openBoardList(@RequestParam(value = "lastBoardIdx", defaultValue = "0") int lastBoardIdx,
+                                @RequestParam(value = "size", defaultValue = "20") int size) throws Exception {
+        return boardRequestExecutor.execute(() -> {
+            ModelAndView mv = new ModelAndView("/board/board");
+
+            List<BoardListDto> list = boardService.selectBoardList(lastBoardIdx, size);
+            mv.addObject("list", list);
+            // 다음 페이지 커서 = 이번 페이지의 마지막 글번호 (더 이상 글이 없으면 null)
+            mv.addObject("nextBoardIdx", list.isEmpty() ? null : list.get(list.size() - 1).getBoardIdx());
+            mv.addObject("size", size);
+
+            return mv;
+        });
+    }
 
-        return mv;
+    @GetMapping("/board/search")
+    public Object searchBoardList(@RequestParam("q") String query,
+                                  @RequestParam(value = "page", defaultValue = "0") int page,
+                                  @RequestParam(value = "size", defaultValue = "20") int size) throws Exception {
+        return boardRequestExecutor.execute(() -> {
+            ModelAndView mv = new ModelAndView("/board/search");
+
+            List<BoardListDto> list = boardService.searchBoardList(query, page, size);
+            // 서비스가 size를 MAX_PAGE_SIZE로 줄여서 읽으므로 다음 페이지 여부도 줄인 크기로 판단한다.
+            int pageSize = BoardService.pageSize(size);
+            mv.addObject("list", list);
+            mv.addObject("q", query);
+            mv.addObject("page", page);
+            mv.addObject("size", pageSize);
+            mv.addObject("hasNext", list.size() >= pageSize);
+
+            return mv;
+        });
     }
 
 //    @RequestMapping(value = "/boardwrite", method = RequestMethod.GET)
@@ -38,21 +78,35 @@ public class BoardController {
 //    }
 
     @PostMapping(value = "/boardwrite")
-    public String insertBoard(Board board, MultipartHttpServletRequest multipartHttpServletRequest) throws Exception {
+    public Object insertBoard(Board board, MultipartHttpServletRequest multipartHttpServletRequest) throws Exception {
         int hitCnt = board.getHitCnt();
 
-        boardService.saveBoard(board, multipartHttpServletRequest, hitCnt);
-        return "redirect:/board";
+        return boardRequestExecutor.execute(() -> {
+            boardService.saveBoard(board, multipartHttpServletRequest, hitCnt);
+            return "redirect:/board";
+        });
+    }
+
+    // 첨부파일을 임시 파일에 두지 않고 요청 본문에서 바로 저장하는 작성 요청
+    // 본문을 먼저 읽으면 안 되므로 CSRF 토큰은 폼 필드가 아니라 헤더(_csrf.headerName, 세션 모드는 X-CSRF-TOKEN)로 보내야 한다.
+    @PostMapping(value = "/boardwrite/stream")
+    public Object insertBoardStreaming(HttpServletRequest request) throws Exception {
+        return boardRequestExecutor.execute(() -> {
+            boardService.saveBoardStreaming(request);
+            return "redirect:/board";
+        });
     }
 
     @RequestMapping(value = "/board/{boardIdx}", method = RequestMethod.GET)
-    public ModelAndView openBoardDetail(@PathVariable("boardIdx") int boardIdx) throws Exception {
-        ModelAndView mv = new ModelAndView("/board/BoardDetail");
+    public Object openBoardDetail(@PathVariable("boardIdx") int boardIdx) throws Exception {
+        return boardRequestExecutor.execute(() -> {
+            ModelAndView mv = new ModelAndView("/board/BoardDetail");
 
-        Board board = boardService.selectBoardDetail(boardIdx);
-        mv.addObject("board", board);
+            Board board = boardService.selectBoardDetail(boardIdx);
+            mv.addObject("board", board);
 
-        return mv;
+            return mv;
+        });
     }
 
     @RequestMapping(value = "/board/{boardIdx}", method = RequestMethod.PUT)
@@ -70,22 +124,51 @@ public class BoardController {
     }
 
     @RequestMapping(value = "/board/file", method = RequestMethod.GET)
-    public void downloadBoardFile(@RequestParam int idx, @RequestParam int boardIdx, HttpServletResponse response) throws Exception {
+    public void downloadBoardFile(@RequestParam int idx, @RequestParam int boardIdx,
+                                  @RequestParam(value = "size", required = false) String size,
+                                  HttpServletRequest request, HttpServletResponse response) throws Exception {
+        boardRequestExecutor.executeAndComplete(request, response,
+                () -> sendBoardFile(idx, boardIdx, size, request, response));
+    }
+
+    private void sendBoardFile(int idx, int boardIdx, String size,
+                               HttpServletRequest request, HttpServletResponse response) throws Exception {
         BoardFileEntity boardFile = boardService.selectBoardFileInformation(idx, boardIdx);
-        if(ObjectUtils.isEmpty(boardFile) == false) {
-            String fileName = boardFile.getOriginalFillName();
+        if(ObjectUtils.isEmpty(boardFile)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
 
-            byte[] files = FileUtils.readFileToByteArray(new File(boardFile.getStoredFilePath()));
+        // 저장된 파일은 수정되지 않으므로 크기 + 생성 시각으로 ETag / Last-Modified를 만든다.
+        long lastModified = boardFile.getCreatedDatetime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String eTag = "\"" + Long.toHexString(boardFile.getFileSize()) + "-" + Long.toHexString(lastModified) + "\"";
+
+        // size=thumb|medium : 화면에 바로 보여줄 축소본을 inline으로 내려준다.
+        // 아직 만들어지지 않았으면 썸네일은 404(목록에서 원본을 통째로 받지 않도록), 중간 크기는 원본을 대신 보낸다.
+        if (size != null) {
+            BoardFileRendition rendition = boardService.selectBoardFileRendition(boardFile.getIdx(), size);
+            if (rendition == null && RenditionSize.THUMBNAIL.getName().equals(size)) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if (rendition == null) {
+                downloadUtils.sendInline(new File(boardFile.getStoredFilePath()), contentTypeOf(boardFile.getStoredFilePath()),
+                        eTag, lastModified, request, response);
+                return;
+            }
+            long renditionLastModified = rendition.getCreatedDatetime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            String renditionETag = "\"" + Long.toHexString(rendition.getFileSize()) + "-" + Long.toHexString(renditionLastModified) + "\"";
+            downloadUtils.sendInline(new File(rendition.getStoredFilePath()), rendition.getContentType(),
+                    renditionETag, renditionLastModified, request, response);
+            return;
+        }
 
-            response.setContentType("application/octet-stream");
-            response.setContentLength(files.length);
-            response.setHeader("Content-Disposition", "attachment; fileName=\"" + URLEncoder.encode(fileName, "UTF-8") + "\";");
-            response.setHeader("Content-Trasfer-Encoding", "binary");
+        downloadUtils.sendFile(new File(boardFile.getStoredFilePath()), boardFile.getOriginalFillName(),
+                eTag, lastModified, request, response);
+    }
 
-            response.getOutputStream().write(files);
-            response.getOutputStream().flush();
-            response.getOutputStream().close();
-        }
+    private static String contentTypeOf(String storedFilePath) {
+        return MediaTypeFactory.getMediaType(storedFilePath).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
     }
 
     @RequestMapping(value = "/board/file", method = RequestMethod.DELETE)
@@ -1,8 +1,11 @@
 package com.spring.project.controller;
 
 import com.spring.project.dto.UserInfoDto;
+import com.spring.project.security.AuthTokenService;
+import com.spring.project.security.TokenSecurityContextRepository;
 import com.spring.project.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.stereotype.Controller;
@@ -18,6 +21,8 @@ public class UserController {
 
     private final UserService userService;
 
+    private final AuthTokenService authTokenService;
+
     @PostMapping("/user")
     public String signup(UserInfoDto infoDto) { // 회원 추가
         userService.save(infoDto);
@@ -31,10 +36,15 @@ public class UserController {
      *                      서블릿은 이 객체를 이용하여 content type, 응답코드, 응답 메시지등을 전송
      * SecurityContextLogoutHandler = 로그아웃에 대한 처리를 담당하는 함수로 사용자가 로그아웃 요청을 했을 경우에만 적용됨
      *                                세션 무효화, 인증 토큰 삭제, SecurityContext에서 해당 토큰 삭제, 쿠키 삭제 등을 처리.
+     * TokenSecurityContextRepository = stateless 모드의 로그아웃 처리, 토큰을 폐기 목록에 넣고 AUTH_TOKEN 쿠키를 지운다.
      */
     @GetMapping(value = "/logout")
     public String logoutPage(HttpServletRequest request, HttpServletResponse response) {
-        new SecurityContextLogoutHandler().logout(request, response, SecurityContextHolder.getContext().getAuthentication());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authTokenService.isStateless()) {
+            new TokenSecurityContextRepository(authTokenService).logout(request, response, authentication);
+        }
+        new SecurityContextLogoutHandler().logout(request, response, authentication);
         return "redirect:/login"; // 로그아웃 처리 후 로그인 페이지로 리다이렉트
     }
 }
@@ -0,0 +1,42 @@
+package com.spring.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 게시글 대량 import / export 한 줄 (NDJSON 한 줄 = 게시글 하나 + 첨부파일 목록)
+ * import 시 boardIdx는 무시하고 DB가 새로 발급한다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BoardBulkRow {
+    private Integer boardIdx;
+    private String title;
+    private String content;
+    private int hitCnt;
+    private String creatorId;
+    private LocalDateTime createdDatetime;
+    private List<File> files = new ArrayList<>();
+
+    /**
+     * 첨부파일 행, storedFilePath의 파일은 이미 첨부파일 저장소에 있어야 한다. (저장소 디렉토리는 따로 복사, root 밖의 경로는 거절)
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class File {
+        private String originalFileName;
+        private String storedFilePath;
+        private long fileSize;
+        private String checksum;
+    }
+}
@@ -0,0 +1,36 @@
+package com.spring.project.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 게시글 목록 한 줄에 필요한 컬럼만 담는 projection (t_jpa_board_summary 한 행)
+ * content, fileList 같은 무거운 컬럼은 목록 조회에서 읽지 않는다.
+ */
+@Getter
+@NoArgsConstructor
+public class BoardListDto {
+    private int boardIdx;
+    private String title;
+    private int hitCnt;
+    private LocalDateTime createdDatetime;
+
+    // 첨부파일 수
+    private long fileCount;
+
+    // 썸네일로 보여줄 첫 번째 첨부 이미지의 idx, 없으면 null
+    private Integer thumbnailFileIdx;
+
+    // JPQL 생성자 표현식용
+    public BoardListDto(int boardIdx, String title, int hitCnt, LocalDateTime createdDatetime,
+                        long fileCount, Integer thumbnailFileIdx) {
+        this.boardIdx = boardIdx;
+        this.title = title;
+        this.hitCnt = hitCnt;
+        this.createdDatetime = createdDatetime;
+        this.fileCount = fileCount;
+        this.thumbnailFileIdx = thumbnailFileIdx;
+    }
+}
@@ -0,0 +1,13 @@
+package com.spring.project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 검색 색인을 다시 만들 때 읽는 게시글 컬럼
+@Getter
+@AllArgsConstructor
+public class BoardSearchDocument {
+    private int boardIdx;
+    private String title;
+    private String content;
+}
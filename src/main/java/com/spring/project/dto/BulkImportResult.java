@@ -0,0 +1,11 @@
+package com.spring.project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BulkImportResult {
+    private long imported;
+    private long elapsedMillis;
+}
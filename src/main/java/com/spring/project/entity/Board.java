@@ -1,6 +1,8 @@
 package com.spring.project.entity;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Where;
 import org.springframework.data.annotation.CreatedDate;
 
 import javax.persistence.*;
@@ -9,7 +11,8 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 
 @Entity @Data
-@Table(name = "t_jpa_board")
+@Table(name = "t_jpa_board", indexes = @Index(name = "idx_board_deleted", columnList = "deletedDatetime"))
+@Where(clause = "deleted_datetime IS NULL") // 삭제 표시된 글은 JPA 조회에서 빠진다. (JDBC로 쓰는 SQL은 직접 조건을 건다.)
 @NoArgsConstructor
 public class Board {
     @Id
@@ -19,7 +22,7 @@ public class Board {
     @Column(nullable = true)
     private String title;
 
-    @Column(nullable = true)
+    @Column(nullable = true, columnDefinition = "TEXT") // V8에서 VARCHAR(255) -> TEXT
     private String content;
 
     @Column(nullable = false)
@@ -35,8 +38,22 @@ public class Board {
 
     private LocalDateTime updateDatetime;
 
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    // 삭제 표시 시각, 행과 첨부파일은 BoardPurger가 나중에 지운다.
+    // 요청 파라미터로 바인딩되지 않도록 setter는 만들지 않는다. (BoardRepository.markBoardDeleted로만 바꿈)
+    @Setter(AccessLevel.NONE)
+    private LocalDateTime deletedDatetime;
+
+    // 첨부파일은 필요할 때만 읽는다. 상세 조회는 EntityGraph로 한 번에, 여러 게시글의 첨부파일은 IN (...)으로 묶어서 읽음
+    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     @JoinColumn(name = "board_Idx")
+    @BatchSize(size = 100)
     private Collection<BoardFileEntity> fileList;
 
+    // 저장 / 수정할 때마다 갱신, 상세 페이지의 ETag / Last-Modified 기준이 된다. (조회수 반영은 JDBC로 하므로 여기에 걸리지 않음)
+    @PrePersist
+    @PreUpdate
+    void touchUpdateDatetime() {
+        updateDatetime = LocalDateTime.now();
+    }
+
 }
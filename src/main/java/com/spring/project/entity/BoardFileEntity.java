@@ -1,13 +1,20 @@
 package com.spring.project.entity;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "t_jpa_file")
+@Table(name = "t_jpa_file", indexes = {
+        @Index(name = "idx_file_stored_path", columnList = "storedFilePath"),
+        @Index(name = "idx_file_board_idx", columnList = "board_idx"),
+        @Index(name = "idx_file_deleted", columnList = "deletedDatetime")})
+@Where(clause = "deleted_datetime IS NULL") // Board.fileList, 다운로드, 참조 수 계산에서 삭제 표시된 첨부파일은 빠진다.
 @NoArgsConstructor
 @Data
 public class BoardFileEntity {
@@ -16,6 +23,10 @@ public class BoardFileEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int idx;
 
+    // Board.fileList의 조인 컬럼을 읽기 전용으로 매핑 (값은 Board 쪽에서 관리)
+    @Column(name = "board_idx", insertable = false, updatable = false)
+    private Integer boardIdx;
+
     @Column(nullable = false)
     private String originalFillName;
 
@@ -25,6 +36,10 @@ public class BoardFileEntity {
     @Column(nullable = false)
     private long fileSize;
 
+    // 업로드 시 스트리밍하면서 계산한 SHA-256 (hex), content-addressed 저장소의 파일명이기도 하다.
+    @Column(length = 64)
+    private String checksum;
+
     @Column(nullable = false)
     private String creatorId;
 
@@ -34,4 +49,8 @@ public class BoardFileEntity {
     private String updatorId;
 
     private LocalDateTime updateDateTime;
+
+    // 삭제 표시 시각 (게시글을 지우면 첨부파일도 같이 표시된다), 행과 저장 파일은 BoardPurger가 나중에 지운다.
+    @Setter(AccessLevel.NONE)
+    private LocalDateTime deletedDatetime;
 }
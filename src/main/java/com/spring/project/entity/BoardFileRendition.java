@@ -0,0 +1,50 @@
+package com.spring.project.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 첨부 이미지에서 만든 축소본 (썸네일 등)
+ *
+ * 원본 첨부파일(t_jpa_file) 하나에 크기별로 한 행씩 만들어진다.
+ * 파일 자체는 원본과 같은 content-addressed 저장소에 저장된다.
+ */
+@Entity
+@Table(name = "t_jpa_file_rendition",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rendition_file_size", columnNames = {"fileIdx", "sizeName"}),
+        indexes = @Index(name = "idx_rendition_stored_path", columnList = "storedFilePath"))
+@NoArgsConstructor
+@Data
+public class BoardFileRendition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int idx;
+
+    // 원본 BoardFileEntity.idx
+    @Column(nullable = false)
+    private int fileIdx;
+
+    // RenditionSize.getName()
+    @Column(nullable = false, length = 20)
+    private String sizeName;
+
+    @Column(nullable = false)
+    private String storedFilePath;
+
+    @Column(nullable = false, length = 50)
+    private String contentType;
+
+    private int width;
+
+    private int height;
+
+    @Column(nullable = false)
+    private long fileSize;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDatetime = LocalDateTime.now();
+}
@@ -0,0 +1,38 @@
+package com.spring.project.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 게시글 목록 전용 요약 테이블 (읽기 최적화용 비정규화)
+ *
+ * 목록 화면에 필요한 컬럼 + 첨부파일 수 + 첫 번째 이미지(썸네일)만 가진 좁은 행이라
+ * 목록 조회가 content 같은 큰 컬럼이나 t_jpa_file을 건드리지 않는다.
+ * 값은 BoardSummaryWriter가 게시글 저장 / 삭제 / 조회수 반영 때마다 원본 테이블에서 다시 계산해서 채운다.
+ */
+@Entity
+@Table(name = "t_jpa_board_summary")
+@NoArgsConstructor
+@Data
+public class BoardSummary {
+
+    // t_jpa_board.board_idx와 같은 값 (발급하지 않음)
+    @Id
+    private int boardIdx;
+
+    private String title;
+
+    @Column(nullable = false)
+    private int hitCnt;
+
+    private LocalDateTime createdDatetime;
+
+    @Column(nullable = false)
+    private long fileCount;
+
+    // 첫 번째 첨부 이미지의 BoardFileEntity.idx (/board/file?size=thumb 로 썸네일을 받는다), 첨부파일이 없으면 null
+    private Integer thumbnailFileIdx;
+}
@@ -0,0 +1,40 @@
+package com.spring.project.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 노드 간 캐시 무효화용 변경 로그 (outbox)
+ *
+ * 게시글 / 회원을 바꾸는 트랜잭션이 같은 트랜잭션에서 한 행씩 남기고 (ChangeLogWriter),
+ * 각 노드는 마지막으로 읽은 seq 이후의 행만 주기적으로 읽어서 자기 캐시를 지운다. (ChangeLogPoller)
+ * 행은 changelog.retention-ms가 지나면 지운다.
+ */
+@Entity
+@Table(name = "t_jpa_change_log", indexes = @Index(name = "idx_change_log_created", columnList = "created_datetime"))
+@NoArgsConstructor
+@Data
+public class ChangeLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long seq;
+
+    // ChangeType (BOARD, BOARD_HITS, USER)
+    @Column(nullable = false, length = 20)
+    private String entityType;
+
+    // boardIdx 또는 email
+    @Column(nullable = false)
+    private String entityKey;
+
+    // 변경한 노드 (자기가 남긴 행은 이미 반영했으므로 건너뛴다.)
+    @Column(nullable = false, length = 64)
+    private String originNode;
+
+    @Column(nullable = false)
+    private LocalDateTime createdDatetime;
+}
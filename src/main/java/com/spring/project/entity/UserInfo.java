@@ -10,6 +10,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import javax.persistence.*;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -55,6 +56,10 @@ public class UserInfo implements UserDetails {
     @Column(name = "auth")
     private String auth;
 
+    // auth 문자열을 파싱한 권한 목록, 처음 getAuthorities() 호출 때 한 번만 만든다. (DB 컬럼 아님)
+    @Transient
+    private volatile Set<GrantedAuthority> authorities;
+
     // Builder 패턴 = 빌더 패턴은 생성 패턴 중 하나이다. 또, 생성 패턴은 인스턴스를 만드는 절차를 추상화하는 패턴이다.
     // 1. 인스턴스를 생성할 때 인자를 선택적으로 가독성 좋게 넘길 수 있음.
     // 2. 인자의 순서가 상관이 없다.
@@ -76,6 +81,10 @@ public class UserInfo implements UserDetails {
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() { // GrantedAuthority 클래스를 상속받아 Collection 선언
+        Set<GrantedAuthority> cached = authorities;
+        if (cached != null) { // 캐시된 사용자는 요청마다 호출되므로 이미 만든 목록을 그대로 반환
+            return cached;
+        }
         Set<GrantedAuthority> roles = new HashSet<>();
         // Set<GrantedAuthority> = 같은 요소의 중복 저장을 허용하지 않는다. 즉, 권한을 중복시키지 않는다.
         // HashSet<> = 해시 알고리즘을 사용하여 검색 속도가 매우 빠름, HashSet 클래스는 Set 인터페이스를 구현하므로, 요소를 순서에 상관없이 저장하고 중복된 값은 저장하지 않음.
@@ -83,7 +92,8 @@ public class UserInfo implements UserDetails {
             roles.add(new SimpleGrantedAuthority(role)); // role(ROLE_ADMIN,ROLE_USER)을 roles에 추가
             // SimpleGrantedAuthority = GrantedAuthority를 상속받은 클래스
         }
-        return roles;
+        authorities = Collections.unmodifiableSet(roles);
+        return authorities;
     }
 
     // 사용자의 id를 반환 (unique한 값)
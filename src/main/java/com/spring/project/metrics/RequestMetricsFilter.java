@@ -0,0 +1,145 @@
+package com.spring.project.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 요청 단위 계측 필터
+ *
+ * 1. 요청마다 X-Request-Id를 정하고 (들어온 값이 있으면 그대로 사용) 응답 헤더와 로그 MDC(requestId)에 넣는다.
+ * 2. 요청 중 실행된 Hibernate SQL 문 수를 http.server.requests.sql 분포로 남긴다. (uri는 /board/{boardIdx} 같은 패턴)
+ * 3. 처리 시간이 request.slow-threshold-ms 이상이면 key=value 형식의 한 줄 로그를 남긴다.
+ *
+ * 전역 SQL 로깅(show_sql, org.hibernate.SQL DEBUG) 대신 느린 요청만 골라서 본다.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // 시큐리티 필터까지 포함해서 잰다.
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final String OFF_THREAD_STATEMENTS = RequestMetricsFilter.class.getName() + ".OFF_THREAD_STATEMENTS";
+
+    // 로그에 그대로 찍히므로 밖에서 들어온 값은 짧은 영숫자만 받는다.
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowThresholdMillis;
+
+    private final StartupMetrics startupMetrics;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry,
+                                @Value("${request.slow-threshold-ms:500}") long slowThresholdMillis,
+                                StartupMetrics startupMetrics) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdMillis = slowThresholdMillis;
+        this.startupMetrics = startupMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || VALID_REQUEST_ID.matcher(requestId).matches() == false) {
+            requestId = UUID.randomUUID().toString();
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        MDC.put("requestId", requestId);
+
+        int statementsBefore = SqlStatementCounter.current();
+        long started = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = SqlStatementCounter.current() - statementsBefore;
+            if (request.isAsyncStarted()) {
+                // 비동기 처리(board.execution.mode=async)는 응답이 끝났을 때 기록한다.
+                String asyncRequestId = requestId;
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, asyncRequestId, started, statements);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                        event.getAsyncContext().addListener(this);
+                    }
+                });
+            } else {
+                record(request, response, requestId, started, statements);
+            }
+            MDC.remove("requestId");
+        }
+    }
+
+    /**
+     * 요청 스레드가 아닌 곳(BoardRequestExecutor 작업 스레드)에서 실행된 SQL 수를 더한다.
+     */
+    public static void addOffThreadStatements(HttpServletRequest request, int statements) {
+        AtomicInteger counter = (AtomicInteger) request.getAttribute(OFF_THREAD_STATEMENTS);
+        if (counter == null) {
+            counter = new AtomicInteger();
+            request.setAttribute(OFF_THREAD_STATEMENTS, counter);
+        }
+        counter.addAndGet(statements);
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, String requestId,
+                        long started, int statements) {
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        AtomicInteger offThread = (AtomicInteger) request.getAttribute(OFF_THREAD_STATEMENTS);
+        if (offThread != null) {
+            statements += offThread.get();
+        }
+        String uri = uriPattern(request);
+
+        DistributionSummary.builder("http.server.requests.sql")
+                .description("SQL statements executed per request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(statements);
+        startupMetrics.onRequestCompleted();
+
+        if (elapsedMillis >= slowThresholdMillis) {
+            log.warn("slow_request request_id={} method={} uri={} path={} status={} duration_ms={} sql_statements={}",
+                    requestId, request.getMethod(), uri, request.getRequestURI(), response.getStatus(),
+                    elapsedMillis, statements);
+        }
+    }
+
+    // 태그 수가 늘어나지 않도록 실제 경로 대신 매핑된 패턴을 쓴다.
+    private static String uriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
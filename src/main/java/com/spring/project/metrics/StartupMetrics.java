@@ -0,0 +1,91 @@
+package com.spring.project.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 기동 시간 계측
+ *
+ * JVM 시작부터 ApplicationReadyEvent까지, 그리고 첫 요청의 응답이 끝날 때까지의 시간을 잰다.
+ * application.ready.time(스프링 부트 기본)은 SpringApplication.run 부터 재므로 JVM / 클래스 로딩 시간(CDS 효과)이 빠진다.
+ *
+ * - application.jvm.ready.time      : JVM 시작 -> ready
+ * - application.first.request.time  : JVM 시작 -> 첫 요청 완료
+ * startup.report-file 이 있으면 첫 요청 뒤 같은 값을 JSON으로 남긴다. (빌드에서 추적, StartupTimeLoadTest)
+ */
+@Slf4j
+@Component
+public class StartupMetrics {
+
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+
+    private final MeterRegistry meterRegistry;
+
+    private final String reportFile;
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private volatile long jvmToReadyMillis = -1;
+
+    private volatile long contextStartupMillis = -1;
+
+    public StartupMetrics(MeterRegistry meterRegistry, @Value("${startup.report-file:}") String reportFile) {
+        this.meterRegistry = meterRegistry;
+        this.reportFile = reportFile;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        jvmToReadyMillis = System.currentTimeMillis() - jvmStartMillis;
+        contextStartupMillis = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+        long ready = jvmToReadyMillis;
+        TimeGauge.builder("application.jvm.ready.time", () -> ready, TimeUnit.MILLISECONDS)
+                .description("Time from JVM start until the application is ready to serve requests")
+                .register(meterRegistry);
+        log.info("startup jvm_to_ready_ms={} context_ms={}", jvmToReadyMillis, contextStartupMillis);
+    }
+
+    // RequestMetricsFilter가 요청이 끝날 때마다 호출, 처음 한 번만 기록한다.
+    public void onRequestCompleted() {
+        if (firstRequestSeen.get() || firstRequestSeen.compareAndSet(false, true) == false) {
+            return;
+        }
+        long firstRequest = System.currentTimeMillis() - jvmStartMillis;
+        TimeGauge.builder("application.first.request.time", () -> firstRequest, TimeUnit.MILLISECONDS)
+                .description("Time from JVM start until the first request completed")
+                .register(meterRegistry);
+        log.info("startup jvm_to_first_request_ms={}", firstRequest);
+        writeReport(firstRequest);
+    }
+
+    private void writeReport(long firstRequestMillis) {
+        if (reportFile.isEmpty()) {
+            return;
+        }
+        String json = "{\"jvmToReadyMs\": " + jvmToReadyMillis + ", \"contextStartupMs\": " + contextStartupMillis
+                + ", \"jvmToFirstRequestMs\": " + firstRequestMillis + "}\n";
+        try {
+            Path path = Paths.get(reportFile);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("기동 시간 보고서 저장 실패 : {}", reportFile, e);
+        }
+    }
+}
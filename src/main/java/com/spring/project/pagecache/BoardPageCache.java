@@ -0,0 +1,72 @@
+package com.spring.project.pagecache;
+
+import com.spring.project.config.CacheConfig;
+import com.spring.project.entity.Board;
+import com.spring.project.repository.BoardRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+/**
+ * 렌더링된 게시판 페이지 캐시 (CacheConfig.PAGES)
+ *
+ * 목록(/board) : 게시글 저장 / 삭제 / 첨부파일 삭제 / import 때마다 목록 버전을 올린다. (invalidateLists)
+ *               조회수 반영으로는 올리지 않는다. 조회가 계속되면 flush 주기마다 목록 전체가 다시 렌더링되기 때문에,
+ *               목록의 조회수는 다른 변경이 있거나 TTL(cache.pages.ttl-seconds)이 지날 때까지 이전 값으로 보인다.
+ * 상세(/board/{boardIdx}) : 게시글의 updateDatetime + DB에 반영된 조회수가 곧 버전이다.
+ *                         첨부파일을 지울 때도 updateDatetime을 같이 올린다. (BoardRepository.touchBoard)
+ *                         게시글은 BOARDS 캐시에서 읽으므로 버전 확인에 SQL이 나가지 않는다.
+ *
+ * 버전이 캐시 키에 들어가므로 바뀐 페이지만 정확히 다시 렌더링되고, 이전 버전 항목은 크기 제한 / TTL로 밀려난다.
+ */
+@Component
+public class BoardPageCache {
+
+    private volatile PageVersion listVersion = new PageVersion("list-0", System.currentTimeMillis());
+
+    private long listSequence;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    public PageVersion listVersion() {
+        return listVersion;
+    }
+
+    // 게시글이 없으면 null (캐시하지 않고 그대로 처리)
+    public PageVersion detailVersion(int boardIdx) {
+        Optional<Board> optional = boardRepository.findWithFileListByBoardIdx(boardIdx);
+        if (optional.isPresent() == false) {
+            return null;
+        }
+        Board board = optional.get();
+        LocalDateTime modified = board.getUpdateDatetime() != null ? board.getUpdateDatetime() : board.getCreatedDatetime();
+        long lastModified = modified != null ? modified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+        return new PageVersion("detail-" + boardIdx + "-" + lastModified + "-" + board.getHitCnt(), lastModified);
+    }
+
+    // 목록에 보이는 값(제목, 첨부파일 수 등)이 바뀐 뒤 호출
+    public synchronized void invalidateLists() {
+        listVersion = new PageVersion("list-" + (++listSequence), System.currentTimeMillis());
+    }
+
+    public CachedPage get(String key) {
+        Cache cache = cacheManager.getCache(CacheConfig.PAGES);
+        return cache != null ? cache.get(key, CachedPage.class) : null;
+    }
+
+    public void put(String key, CachedPage page) {
+        Cache cache = cacheManager.getCache(CacheConfig.PAGES);
+        if (cache != null) {
+            cache.put(key, page);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.spring.project.pagecache;
+
+import com.spring.project.service.BoardHitCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 게시글 목록 / 상세 페이지 캐시 + 조건부 GET 필터
+ *
+ * 1. 요청한 페이지의 버전(BoardPageCache)으로 ETag를 만들고, If-None-Match / If-Modified-Since가 맞으면 304로 끝낸다.
+ * 2. 같은 버전의 렌더링 결과가 캐시에 있으면 Thymeleaf를 거치지 않고 그대로 보낸다.
+ * 3. 없으면 평소대로 렌더링하면서 응답 본문을 모아 캐시에 넣는다. (ShallowEtagHeaderFilter와 같은 방식, 비동기 디스패치 지원)
+ *
+ * 캐시 키에는 로그인 사용자 이름이 들어가므로 사용자별 내용이 페이지에 들어가도 다른 사용자에게 보이지 않는다.
+ * 304 / 캐시 응답이어도 상세 페이지는 조회수를 센다.
+ * 순서를 정하지 않았으므로 스프링 시큐리티 필터 뒤에서 동작한다. (인증되지 않은 요청은 여기까지 오지 않음)
+ */
+@Component
+public class BoardPageCacheFilter extends OncePerRequestFilter {
+
+    // 브라우저는 저장은 하되 쓰기 전에 항상 ETag로 확인한다. (공용 프록시에는 저장하지 않음)
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private static final Pattern DETAIL_PATH = Pattern.compile("/board/(\\d{1,9})");
+
+    private static final String PENDING_PAGE = BoardPageCacheFilter.class.getName() + ".PENDING_PAGE";
+
+    @Autowired
+    BoardPageCache boardPageCache;
+
+    @Autowired
+    BoardHitCounter boardHitCounter;
+
+    @Value("${board.page-cache.enabled:true}")
+    boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return enabled == false || "GET".equals(request.getMethod()) == false;
+    }
+
+    // 비동기 처리(board.execution.mode=async)는 렌더링이 비동기 디스패치에서 일어나므로 거기서 저장한다.
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            // 첫 디스패치에서 감싼 응답(ContentCachingResponseWrapper)이 그대로 넘어온다.
+            render(request, response, filterChain);
+            return;
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Integer boardIdx = null;
+        PageVersion version = null;
+        if ("/board".equals(path)) {
+            version = boardPageCache.listVersion();
+        } else {
+            Matcher matcher = DETAIL_PATH.matcher(path);
+            if (matcher.matches()) {
+                boardIdx = Integer.parseInt(matcher.group(1));
+                version = boardPageCache.detailVersion(boardIdx);
+            }
+        }
+        if (version == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Principal principal = request.getUserPrincipal();
+        String key = version.getKey() + "|" + request.getQueryString() + "|" + (principal != null ? principal.getName() : "");
+        // 사용자 이름이 헤더에 드러나지 않도록 키를 해시해서 ETag로 쓴다.
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+
+        // 응답 없이 만든 ServletWebRequest는 비교만 하고 응답 헤더는 건드리지 않는다.
+        if (new ServletWebRequest(request).checkNotModified(eTag, version.getLastModified())) {
+            countView(boardIdx);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            setValidators(response, eTag, version.getLastModified());
+            return;
+        }
+
+        CachedPage page = boardPageCache.get(key);
+        if (page != null) {
+            countView(boardIdx);
+            setValidators(response, eTag, version.getLastModified());
+            response.setContentType(page.getContentType());
+            response.setContentLength(page.getBody().length);
+            response.getOutputStream().write(page.getBody());
+            return;
+        }
+
+        request.setAttribute(PENDING_PAGE, new PendingPage(key, eTag, version.getLastModified()));
+        render(request, new ContentCachingResponseWrapper(response), filterChain);
+    }
+
+    private void render(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean rendered = false;
+        try {
+            filterChain.doFilter(request, response);
+            rendered = true;
+        } finally {
+            if (isAsyncStarted(request) == false) {
+                ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+                if (wrapper != null) {
+                    if (rendered) {
+                        store(request, wrapper);
+                    }
+                    wrapper.copyBodyToResponse();
+                }
+            }
+        }
+    }
+
+    // 정상적으로 렌더링된 HTML만 저장한다. (리다이렉트 / 오류 / 다른 형식은 그대로 내보냄)
+    private void store(HttpServletRequest request, ContentCachingResponseWrapper wrapper) {
+        PendingPage pending = (PendingPage) request.getAttribute(PENDING_PAGE);
+        String contentType = wrapper.getContentType();
+        if (pending == null || wrapper.getStatus() != HttpServletResponse.SC_OK
+                || contentType == null || contentType.startsWith("text/html") == false) {
+            return;
+        }
+        boardPageCache.put(pending.key, new CachedPage(contentType, wrapper.getContentAsByteArray()));
+        setValidators(wrapper, pending.eTag, pending.lastModified);
+    }
+
+    private static void setValidators(HttpServletResponse response, String eTag, long lastModified) {
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+    }
+
+    private void countView(Integer boardIdx) {
+        if (boardIdx != null) {
+            boardHitCounter.increment(boardIdx);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class PendingPage {
+
+        private final String key;
+
+        private final String eTag;
+
+        private final long lastModified;
+    }
+}
@@ -0,0 +1,16 @@
+package com.spring.project.pagecache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 렌더링이 끝난 페이지 (BoardPageCache에 저장되는 값)
+ */
+@Getter
+@RequiredArgsConstructor
+public class CachedPage {
+
+    private final String contentType;
+
+    private final byte[] body;
+}
@@ -0,0 +1,17 @@
+package com.spring.project.pagecache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 페이지 버전 = 캐시 키의 앞부분 + Last-Modified
+ * 내용이 바뀌면 key가 바뀌므로 이전 버전으로 저장된 페이지는 더 이상 쓰이지 않는다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PageVersion {
+
+    private final String key;
+
+    private final long lastModified;
+}
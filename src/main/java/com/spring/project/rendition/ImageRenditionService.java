@@ -0,0 +1,267 @@
+package com.spring.project.rendition;
+
+import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.entity.BoardFileRendition;
+import com.spring.project.repository.BoardFileRenditionRepository;
+import com.spring.project.repository.BoardRepository;
+import com.spring.project.storage.AttachmentStore;
+import com.spring.project.storage.StoredAttachment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 첨부 이미지 축소본 생성
+ *
+ * 게시글 저장이 끝난 뒤 별도 스레드 풀에서 RenditionSize 크기별 축소본을 만들어 저장소에 넣고 t_jpa_file_rendition에 기록한다.
+ * 요청 스레드는 기다리지 않는다. 축소본이 만들어지기 전에 썸네일(thumb)을 요청하면 404, 중간 크기(medium)는 원본을 내려준다.
+ * 원본이 이미 해당 크기보다 작으면 새로 인코딩하지 않고 원본 파일을 가리키는 행을 남긴다.
+ *
+ * 1. 원본을 디코딩할 때 가장 큰 축소본의 2배 이상 크면 픽셀을 건너뛰며 읽어서(subsampling) 메모리와 시간을 줄이고
+ * 2. 큰 크기부터 만들고 작은 크기는 바로 앞 결과에서 다시 줄인다.
+ * 3. 투명도가 없으면 JPEG, 있으면(PNG / GIF) PNG로 다시 인코딩한다.
+ */
+@Slf4j
+@Component
+public class ImageRenditionService {
+
+    // 디코딩 전에 거르는 최대 픽셀 수 (작은 파일이 메모리를 크게 잡아먹는 이미지 방지)
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    private final ThreadPoolExecutor executor;
+
+    private final float jpegQuality;
+
+    @Autowired
+    BoardFileRenditionRepository boardFileRenditionRepository;
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    @Autowired
+    AttachmentStore attachmentStore;
+
+    public ImageRenditionService(@Value("${file.rendition.threads:2}") int threads,
+                                 @Value("${file.rendition.queue-capacity:1000}") int queueCapacity,
+                                 @Value("${file.rendition.jpeg-quality:0.8}") float jpegQuality) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "file-rendition-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY); // 요청 처리 스레드보다 뒤로
+                    return thread;
+                });
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * 저장이 끝난(idx가 있는) 첨부파일들의 축소본 생성을 예약
+     * 큐가 가득 차면 건너뛴다. 축소본이 없어도 원본으로 대체되므로 요청을 실패시키지 않는다.
+     */
+    public void generateAsync(Collection<BoardFileEntity> fileList) {
+        if (fileList == null) {
+            return;
+        }
+        for (BoardFileEntity boardFile : fileList) {
+            int fileIdx = boardFile.getIdx();
+            String storedFilePath = boardFile.getStoredFilePath();
+            try {
+                executor.execute(() -> generate(fileIdx, storedFilePath));
+            } catch (RejectedExecutionException e) {
+                log.warn("축소본 생성 대기열이 가득 차서 건너뜀 : fileIdx={}", fileIdx);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    void generate(int fileIdx, String storedFilePath) {
+        // 대기하는 동안 첨부파일이 지워졌으면 만들지 않는다.
+        if (boardRepository.existsBoardFile(fileIdx) == false) {
+            return;
+        }
+        try {
+            BufferedImage image = read(new File(storedFilePath), RenditionSize.values()[0].getMaxSide());
+            if (image == null) {
+                return;
+            }
+            for (RenditionSize size : RenditionSize.values()) {
+                // 원본이 이미 충분히 작으면 원본을 가리키는 행만 남긴다.
+                if (Math.max(image.getWidth(), image.getHeight()) <= size.getMaxSide()) {
+                    if (boardFileRenditionRepository.findByFileIdxAndSizeName(fileIdx, size.getName()) == null) {
+                        saveOriginal(fileIdx, size, storedFilePath, image);
+                    }
+                    continue;
+                }
+                image = scale(image, size.getMaxSide());
+                if (boardFileRenditionRepository.findByFileIdxAndSizeName(fileIdx, size.getName()) == null) {
+                    save(fileIdx, size, image);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("축소본 생성 실패 : fileIdx={}, {}", fileIdx, storedFilePath, e);
+        }
+    }
+
+    private BufferedImage read(File file, int maxSide) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (readers.hasNext() == false) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    log.warn("이미지가 너무 커서 축소본을 만들지 않음 : {} ({}x{})", file, width, height);
+                    return null;
+                }
+                // 결과가 가장 큰 축소본의 2배 아래로 내려가지 않는 만큼만 건너뛰며 읽는다.
+                int factor = Math.max(1, Math.max(width, height) / (maxSide * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int maxSide) {
+        double ratio = (double) maxSide / Math.max(source.getWidth(), source.getHeight());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        boolean alpha = source.getColorModel().hasAlpha();
+        BufferedImage target = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void save(int fileIdx, RenditionSize size, BufferedImage image) throws IOException {
+        boolean alpha = image.getColorModel().hasAlpha();
+        byte[] bytes = alpha ? encodePng(image) : encodeJpeg(image);
+
+        StoredAttachment stored = attachmentStore.store(new ByteArrayInputStream(bytes), alpha ? ".png" : ".jpg");
+        BoardFileRendition rendition = new BoardFileRendition();
+        rendition.setFileIdx(fileIdx);
+        rendition.setSizeName(size.getName());
+        rendition.setStoredFilePath(stored.getStoredFilePath());
+        rendition.setContentType(alpha ? "image/png" : "image/jpeg");
+        rendition.setWidth(image.getWidth());
+        rendition.setHeight(image.getHeight());
+        rendition.setFileSize(stored.getFileSize());
+
+        boolean saved = false;
+        try {
+            boardFileRenditionRepository.save(rendition);
+            saved = true;
+        } catch (DataIntegrityViolationException e) { // 다른 스레드가 먼저 같은 크기를 저장함
+            log.debug("이미 존재하는 축소본 : fileIdx={}, size={}", fileIdx, size.getName());
+        } finally {
+            attachmentStore.unpin(Collections.singletonList(stored.getStoredFilePath()));
+            if (saved == false) {
+                attachmentStore.release(Collections.singletonList(stored.getStoredFilePath()));
+            }
+        }
+
+        // 저장하는 사이 원본이 지워졌으면 방금 만든 축소본도 지운다.
+        if (saved && boardRepository.existsBoardFile(fileIdx) == false) {
+            boardFileRenditionRepository.deleteByFileIdx(fileIdx);
+            attachmentStore.release(Collections.singletonList(stored.getStoredFilePath()));
+        }
+    }
+
+    // 원본 파일을 그대로 축소본으로 등록 (저장소에 새로 쓰지 않는다.)
+    private void saveOriginal(int fileIdx, RenditionSize size, String storedFilePath, BufferedImage image) throws IOException {
+        BoardFileRendition rendition = new BoardFileRendition();
+        rendition.setFileIdx(fileIdx);
+        rendition.setSizeName(size.getName());
+        rendition.setStoredFilePath(storedFilePath);
+        rendition.setContentType(MediaTypeFactory.getMediaType(storedFilePath).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        rendition.setWidth(image.getWidth());
+        rendition.setHeight(image.getHeight());
+        rendition.setFileSize(Files.size(Paths.get(storedFilePath)));
+        try {
+            boardFileRenditionRepository.save(rendition);
+        } catch (DataIntegrityViolationException e) { // 다른 스레드가 먼저 같은 크기를 저장함
+            log.debug("이미 존재하는 축소본 : fileIdx={}, size={}", fileIdx, size.getName());
+            return;
+        }
+
+        // 저장하는 사이 원본이 지워졌으면 행을 지우고, 이 행 때문에 남았을 수 있는 원본도 정리한다.
+        if (boardRepository.existsBoardFile(fileIdx) == false) {
+            boardFileRenditionRepository.deleteByFileIdx(fileIdx);
+            attachmentStore.release(Collections.singletonList(storedFilePath));
+        }
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,30 @@
+package com.spring.project.rendition;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 미리 만들어 두는 축소본 크기 (긴 변 기준 px)
+ * 큰 것부터 선언해야 한다. 작은 크기는 바로 앞의 축소본에서 다시 줄여서 만든다.
+ */
+@Getter
+@AllArgsConstructor
+public enum RenditionSize {
+
+    MEDIUM("medium", 800),
+    THUMBNAIL("thumb", 200);
+
+    // 다운로드 요청의 size 파라미터 값
+    private final String name;
+
+    private final int maxSide;
+
+    public static RenditionSize of(String name) {
+        for (RenditionSize size : values()) {
+            if (size.name.equals(name)) {
+                return size;
+            }
+        }
+        return null;
+    }
+}
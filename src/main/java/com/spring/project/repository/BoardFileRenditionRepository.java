@@ -0,0 +1,24 @@
+package com.spring.project.repository;
+
+import com.spring.project.entity.BoardFileRendition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface BoardFileRenditionRepository extends JpaRepository<BoardFileRendition, Integer> {
+
+    BoardFileRendition findByFileIdxAndSizeName(int fileIdx, String sizeName);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BoardFileRendition r WHERE r.fileIdx = :fileIdx")
+    void deleteByFileIdx(@Param("fileIdx") int fileIdx);
+
+    // 같은 저장 파일을 참조하는 rendition 행의 수 (같은 원본을 여러 게시글에 올리면 rendition도 같은 파일이 된다)
+    @Query("SELECT COUNT(r) FROM BoardFileRendition r WHERE r.storedFilePath = :storedFilePath")
+    long countRenditionReference(@Param("storedFilePath") String storedFilePath);
+}
@@ -1,24 +1,70 @@
 package com.spring.project.repository;
 
+import com.spring.project.config.CacheConfig;
+import com.spring.project.dto.BoardSearchDocument;
 import com.spring.project.entity.Board;
 import com.spring.project.entity.BoardFileEntity;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BoardRepository extends JpaRepository<Board, Integer> {
 
-    List<Board> findAllByOrderByBoardIdxDesc();
+    // 검색 색인 재구성용 : boardIdx 오름차순 keyset 페이징
+    @Query("SELECT new com.spring.project.dto.BoardSearchDocument(b.boardIdx, b.title, b.content) " +
+            "FROM Board b WHERE b.boardIdx > :lastBoardIdx ORDER BY b.boardIdx ASC")
+    List<BoardSearchDocument> findSearchDocumentsAfter(@Param("lastBoardIdx") int lastBoardIdx, Pageable pageable);
 
-    @Query("SELECT file FROM BoardFileEntity file WHERE board_idx = :boardIdx AND idx =:idx")
+    // 상세 조회용 : 게시글과 첨부파일을 join으로 한 번에 읽는다.
+    // 결과는 캐시되어 여러 요청이 같은 객체를 공유하므로 호출하는 쪽에서 수정하면 안 된다.
+    @Cacheable(cacheNames = CacheConfig.BOARDS, key = "#p0", unless = "#result == null")
+    @EntityGraph(attributePaths = "fileList")
+    @Query("SELECT b FROM Board b WHERE b.boardIdx = :boardIdx")
+    Optional<Board> findWithFileListByBoardIdx(@Param("boardIdx") int boardIdx);
+
+    @Query("SELECT file FROM BoardFileEntity file WHERE file.boardIdx = :boardIdx AND file.idx = :idx")
     BoardFileEntity findBoardFile(@Param("idx") int idx, @Param("boardIdx") int boardIdx);
 
-    @Query("DELETE FROM BoardFileEntity file WHERE board_idx = :boardIdx AND idx = :idx")
-    void deleteBoardFile(@Param("idx") int idx, @Param("boardIdx") int boardIdx);
+    // 삭제는 표시만 하고 바로 끝낸다. 행과 저장 파일은 BoardPurger가 모아서 지운다.
+    @Transactional
+    @Modifying // DELETE / UPDATE JPQL은 @Modifying이 있어야 실행된다.
+    @Query("UPDATE Board b SET b.deletedDatetime = :now WHERE b.boardIdx = :boardIdx AND b.deletedDatetime IS NULL")
+    int markBoardDeleted(@Param("boardIdx") int boardIdx, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE BoardFileEntity file SET file.deletedDatetime = :now WHERE file.boardIdx = :boardIdx AND file.deletedDatetime IS NULL")
+    int markBoardFilesDeleted(@Param("boardIdx") int boardIdx, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE BoardFileEntity file SET file.deletedDatetime = :now " +
+            "WHERE file.boardIdx = :boardIdx AND file.idx = :idx AND file.deletedDatetime IS NULL")
+    int markBoardFileDeleted(@Param("idx") int idx, @Param("boardIdx") int boardIdx, @Param("now") LocalDateTime now);
+
+    // 첨부파일만 바뀌어도 게시글의 수정 시각을 올린다. (상세 페이지 캐시 / ETag 버전)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Board b SET b.updateDatetime = :now WHERE b.boardIdx = :boardIdx")
+    int touchBoard(@Param("boardIdx") int boardIdx, @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(file) > 0 FROM BoardFileEntity file WHERE file.idx = :idx")
+    boolean existsBoardFile(@Param("idx") int idx);
+
+    // 같은 저장 파일을 참조하는 첨부파일 행의 수 (content-addressed 저장소의 참조 수)
+    @Query("SELECT COUNT(file) FROM BoardFileEntity file WHERE file.storedFilePath = :storedFilePath")
+    long countFileReference(@Param("storedFilePath") String storedFilePath);
 }
@@ -0,0 +1,25 @@
+package com.spring.project.repository;
+
+import com.spring.project.dto.BoardListDto;
+import com.spring.project.entity.BoardSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BoardSummaryRepository extends JpaRepository<BoardSummary, Integer> {
+
+    // keyset 페이징 : boardIdx(PK) 인덱스를 타고 lastBoardIdx 이후의 행만 읽기 때문에 페이지가 뒤로 가도 비용이 일정하다.
+    @Query("SELECT new com.spring.project.dto.BoardListDto(s.boardIdx, s.title, s.hitCnt, s.createdDatetime, s.fileCount, s.thumbnailFileIdx) " +
+            "FROM BoardSummary s WHERE s.boardIdx < :lastBoardIdx ORDER BY s.boardIdx DESC")
+    List<BoardListDto> findBoardListBefore(@Param("lastBoardIdx") int lastBoardIdx, Pageable pageable);
+
+    @Query("SELECT new com.spring.project.dto.BoardListDto(s.boardIdx, s.title, s.hitCnt, s.createdDatetime, s.fileCount, s.thumbnailFileIdx) " +
+            "FROM BoardSummary s WHERE s.boardIdx IN :boardIdxs")
+    List<BoardListDto> findBoardListByBoardIdxIn(@Param("boardIdxs") Collection<Integer> boardIdxs);
+}
@@ -1,6 +1,9 @@
 package com.spring.project.repository;
 
+import com.spring.project.config.CacheConfig;
 import com.spring.project.entity.UserInfo;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
@@ -15,9 +18,13 @@ import java.util.Optional;
  *                  extends JpaRepository<엔터티 클래스이름, ID 필드 타입>
  */
 public interface UserRepository extends JpaRepository<UserInfo, Long> {
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#p0", unless = "#result == null") // 로그인마다 DB를 조회하지 않도록 캐시
     Optional<UserInfo> findByEmail(String email); // Optional<T> = NullPointerException을 방지할 수 있도록 하는 클래스
                                                     // 즉, Optional 클래스에서 제공하는 함수로 NPE를 방지할 수 있다.
                                                     // findBy**는 Entity의 속성을 검색해서, Optional를 리턴 타입으로 반환하는 메서드
+
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#p0.email") // 회원 정보가 바뀌면 캐시에서 제거
+    <S extends UserInfo> S save(S entity);
 }
 
 /**
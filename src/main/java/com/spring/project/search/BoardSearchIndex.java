@@ -0,0 +1,255 @@
+package com.spring.project.search;
+
+import com.spring.project.dto.BoardSearchDocument;
+import com.spring.project.repository.BoardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 게시글 제목 / 내용 전문 검색용 인메모리 역색인(inverted index)
+ *
+ * 토큰(BoardTokenizer) -> (boardIdx -> 토큰 등장 횟수) 형태로 들고 있다가,
+ * 검색어 토큰들의 posting만 모아서 BM25로 점수를 매긴다. 검색 비용은 게시글 전체 수가 아니라 검색어가 들어간 게시글 수에 비례한다.
+ *
+ * 게시글 저장 / 삭제 때 BoardServiceImpl이 index() / remove()를 호출해서 바로 반영하고,
+ * 애플리케이션이 뜨면 DB에서 전체 게시글을 읽어 색인을 다시 만든다.
+ */
+@Slf4j
+@Component
+public class BoardSearchIndex {
+
+    // 제목에 나온 토큰은 내용보다 가중치를 크게 준다.
+    private static final int TITLE_WEIGHT = 3;
+
+    // BM25 파라미터
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 지금 검색에 쓰는 색인, 재구성은 새 색인을 따로 만든 뒤 통째로 바꾼다. (lock 안에서만 읽고 바꾼다.)
+    private Segment current = new Segment();
+
+    // 재색인 도중 저장 / 삭제된 게시글 (교체할 때 현재 색인의 내용을 새 색인에 옮긴다.)
+    private final Set<Integer> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean rebuilding;
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    public void index(int boardIdx, String title, String content) {
+        if (rebuilding) {
+            touchedDuringRebuild.add(boardIdx);
+        }
+        Map<String, Integer> terms = terms(title, content);
+        lock.writeLock().lock();
+        try {
+            current.put(boardIdx, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int boardIdx) {
+        if (rebuilding) {
+            touchedDuringRebuild.add(boardIdx);
+        }
+        lock.writeLock().lock();
+        try {
+            current.remove(boardIdx);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SearchHits search(String query, int page, int size) {
+        List<String> terms = BoardTokenizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return new SearchHits(0, Collections.<Integer>emptyList());
+        }
+
+        Map<Integer, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Segment segment = current;
+            int documentCount = segment.documents.size();
+            double averageLength = documentCount == 0 ? 1 : (double) segment.totalLength / documentCount;
+            for (String term : terms) {
+                Map<Integer, Integer> posting = segment.postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<Integer, Integer> entry : posting.entrySet()) {
+                    int tf = entry.getValue();
+                    double length = segment.lengths.get(entry.getKey());
+                    double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(entry.getKey(), score, Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // 요청한 페이지까지만 상위 N개를 뽑는다. (점수가 같으면 최신 글 우선)
+        // page가 아주 크면 int 곱셈이 넘치므로 long으로 계산한다. (결과 수보다 크면 빈 페이지)
+        long limit = ((long) page + 1) * size;
+        PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(
+                (a, b) -> a.getValue().equals(b.getValue()) ? Integer.compare(a.getKey(), b.getKey()) : Double.compare(a.getValue(), b.getValue()));
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(top.size());
+        while (top.isEmpty() == false) {
+            ranked.add(top.poll().getKey());
+        }
+        Collections.reverse(ranked);
+
+        int from = (int) Math.min((long) page * size, ranked.size());
+        return new SearchHits(scores.size(), new ArrayList<>(ranked.subList(from, ranked.size())));
+    }
+
+    // 애플리케이션 기동 후 백그라운드에서 색인 재구성 (기동 시간을 늘리지 않도록)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuildAsync();
+    }
+
+    // 대량 import처럼 색인을 거치지 않고 DB에 직접 들어간 게시글이 있을 때 호출
+    public void rebuildAsync() {
+        Thread thread = new Thread(this::rebuild, "board-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * DB의 게시글을 boardIdx 순으로 REBUILD_BATCH_SIZE개씩 읽어 새 색인을 만들고, 다 만들어지면 현재 색인과 바꾼다.
+     * 만드는 동안에는 기존 색인으로 검색하므로 결과가 비거나 일부만 나오지 않는다. (그동안 메모리는 색인 두 개만큼 쓴다.)
+     */
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        rebuilding = true;
+        touchedDuringRebuild.clear();
+        Segment rebuilt = new Segment();
+        try {
+            int lastBoardIdx = 0;
+            while (true) {
+                List<BoardSearchDocument> batch = boardRepository.findSearchDocumentsAfter(lastBoardIdx, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (BoardSearchDocument document : batch) {
+                    rebuilt.put(document.getBoardIdx(), terms(document.getTitle(), document.getContent()));
+                }
+                lastBoardIdx = batch.get(batch.size() - 1).getBoardIdx();
+            }
+
+            lock.writeLock().lock();
+            try {
+                // 재구성 도중 저장 / 삭제된 게시글은 DB에서 읽은 예전 내용 대신 현재 색인의 내용을 쓴다.
+                for (Integer boardIdx : touchedDuringRebuild) {
+                    Map<String, Integer> terms = current.documents.get(boardIdx);
+                    if (terms == null) {
+                        rebuilt.remove(boardIdx);
+                    } else {
+                        rebuilt.put(boardIdx, terms);
+                    }
+                }
+                current = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("검색 색인 재구성 완료 : {}건, {}ms", rebuilt.documents.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("검색 색인 재구성 실패, 기존 색인을 계속 사용", e);
+        } finally {
+            rebuilding = false;
+            touchedDuringRebuild.clear();
+        }
+    }
+
+    private static Map<String, Integer> terms(String title, String content) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String token : BoardTokenizer.tokenize(title)) {
+            terms.merge(token, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String token : BoardTokenizer.tokenize(content)) {
+            terms.merge(token, 1, Integer::sum);
+        }
+        return terms;
+    }
+
+    /**
+     * 색인 하나 (posting, 문서별 토큰, 문서 길이), 동기화는 BoardSearchIndex의 lock이 맡는다.
+     */
+    private static class Segment {
+
+        // 토큰 -> (boardIdx -> tf)
+        private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+
+        // boardIdx -> (토큰 -> tf), 삭제 / 재색인 시 posting을 지우기 위해 보관
+        private final Map<Integer, Map<String, Integer>> documents = new HashMap<>();
+
+        // boardIdx -> 문서 길이 (tf 합계)
+        private final Map<Integer, Integer> lengths = new HashMap<>();
+
+        private long totalLength;
+
+        void put(int boardIdx, Map<String, Integer> terms) {
+            remove(boardIdx);
+            documents.put(boardIdx, terms);
+            for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(boardIdx, entry.getValue());
+            }
+            int length = documentLength(terms);
+            lengths.put(boardIdx, length);
+            totalLength += length;
+        }
+
+        void remove(int boardIdx) {
+            Map<String, Integer> terms = documents.remove(boardIdx);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms.keySet()) {
+                Map<Integer, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(boardIdx);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            totalLength -= lengths.remove(boardIdx);
+        }
+
+        private static int documentLength(Map<String, Integer> terms) {
+            int length = 0;
+            for (int tf : terms.values()) {
+                length += tf;
+            }
+            return length;
+        }
+    }
+}
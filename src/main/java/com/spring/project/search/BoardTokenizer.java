@@ -0,0 +1,67 @@
+package com.spring.project.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 검색용 토크나이저
+ *
+ * 한글(한자, 가나 포함)은 띄어쓰기와 조사 때문에 단어 단위로 자르기 어려우므로 연속된 글자를 2글자씩 겹쳐서 자른다. (bigram)
+ *   ex. "게시판입니다" -> 게시, 시판, 판입, 입니, 니다
+ * 영문 / 숫자는 소문자로 바꾼 단어 단위로 자른다.
+ * 문서와 검색어를 같은 방식으로 자르기 때문에 "게시판"으로 검색하면 게시, 시판을 모두 가진 문서가 높은 점수를 받는다.
+ */
+public final class BoardTokenizer {
+
+    private BoardTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        int i = 0;
+        while (i < length) {
+            char c = lower.charAt(i);
+            int start = i;
+            if (isCjk(c)) {
+                while (i < length && isCjk(lower.charAt(i))) {
+                    i++;
+                }
+                addBigrams(lower, start, i, tokens);
+            } else if (Character.isLetterOrDigit(c)) {
+                while (i < length && Character.isLetterOrDigit(lower.charAt(i)) && isCjk(lower.charAt(i)) == false) {
+                    i++;
+                }
+                tokens.add(lower.substring(start, i));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addBigrams(String text, int start, int end, List<String> tokens) {
+        if (end - start == 1) { // 한 글자짜리는 그대로
+            tokens.add(text.substring(start, end));
+            return;
+        }
+        for (int i = start; i + 2 <= end; i++) {
+            tokens.add(text.substring(i, i + 2));
+        }
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+        return block == Character.UnicodeBlock.HANGUL_SYLLABLES
+                || block == Character.UnicodeBlock.HANGUL_JAMO
+                || block == Character.UnicodeBlock.HANGUL_COMPATIBILITY_JAMO
+                || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
+                || block == Character.UnicodeBlock.HIRAGANA
+                || block == Character.UnicodeBlock.KATAKANA;
+    }
+}
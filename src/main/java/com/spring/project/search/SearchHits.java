@@ -0,0 +1,14 @@
+package com.spring.project.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// 검색 결과 한 페이지 (점수 높은 순 boardIdx)
+@Getter
+@AllArgsConstructor
+public class SearchHits {
+    private final int totalHits;
+    private final List<Integer> boardIdxs;
+}
@@ -0,0 +1,16 @@
+package com.spring.project.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 서명된 인증 토큰의 내용 (AuthTokenService)
+@Getter
+@AllArgsConstructor
+public class AuthToken {
+    private final String tokenId; // 폐기(로그아웃) 목록에서 쓰는 토큰 식별자
+    private final long issuedAt; // 발급 시각 (epoch 초)
+    private final long expiresAt; // 만료 시각 (epoch 초)
+    private final String email;
+    private final String auth; // UserInfo.auth 와 같은 형식 (ROLE_ADMIN,ROLE_USER)
+    private final String name;
+}
@@ -0,0 +1,233 @@
+package com.spring.project.security;
+
+import com.spring.project.changelog.ChangeLogWriter;
+import com.spring.project.changelog.ChangeType;
+import com.spring.project.entity.UserInfo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * 서명된 인증 토큰 (security.session.mode=stateless)
+ *
+ * 로그인한 사용자 정보(email, 이름, 권한 문자열)와 만료 시각을 쿠키에 담고 HMAC-SHA256으로 서명한다.
+ * 요청마다 서명과 만료 시각만 확인하므로 세션 저장소나 DB를 조회하지 않고, 어느 노드로 가도(sticky 없이) 같은 결과가 나온다.
+ *
+ * 토큰 = base64url(내용) + "." + base64url(HMAC(base64url(내용)))
+ * 내용 = 버전 \n 토큰ID \n 발급 시각 \n 만료 시각 \n email \n 권한 \n 이름 (이름은 마지막이라 어떤 문자가 들어가도 된다.)
+ *
+ * 모든 노드가 같은 security.token.secret(base64, 32바이트 이상)을 써야 한다. 비어 있으면 기동할 때마다 임의의 키를 만든다. (개발용)
+ * 권한이 바뀌어도 이미 발급된 토큰은 만료(또는 재발급)될 때까지 이전 권한을 가진다.
+ */
+@Slf4j
+@Component
+public class AuthTokenService {
+
+    public static final String COOKIE_NAME = "AUTH_TOKEN";
+
+    private static final String VERSION = "1";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final boolean stateless;
+
+    private final long ttlSeconds;
+
+    private final long refreshAfterSeconds;
+
+    private final boolean secureCookie;
+
+    private final ThreadLocal<Mac> macs; // Mac은 스레드에 안전하지 않으므로 스레드마다 하나씩 만든다.
+
+    private final TokenRevocationList revocationList;
+
+    LongSupplier epochSeconds = () -> System.currentTimeMillis() / 1000;
+
+    @Autowired(required = false)
+    ChangeLogWriter changeLogWriter;
+
+    @Autowired(required = false)
+    TransactionTemplate transactionTemplate;
+
+    public AuthTokenService(MeterRegistry meterRegistry,
+                            @Value("${security.session.mode:session}") String sessionMode,
+                            @Value("${security.token.secret:}") String secret,
+                            @Value("${security.token.ttl-seconds:1800}") long ttlSeconds,
+                            @Value("${security.token.refresh-after-seconds:900}") long refreshAfterSeconds,
+                            @Value("${security.token.cookie-secure:false}") boolean secureCookie) {
+        this.stateless = "stateless".equalsIgnoreCase(sessionMode.trim());
+        this.ttlSeconds = ttlSeconds;
+        this.refreshAfterSeconds = refreshAfterSeconds;
+        this.secureCookie = secureCookie;
+        byte[] key = keyOf(secret, stateless);
+        this.macs = ThreadLocal.withInitial(() -> newMac(key));
+        this.revocationList = new TokenRevocationList(() -> epochSeconds.getAsLong());
+        Gauge.builder("security.token.revoked", revocationList, TokenRevocationList::size).register(meterRegistry);
+    }
+
+    // true면 HTTP 세션 대신 토큰 쿠키로 로그인 상태를 유지한다. (WebSecurityConfig)
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    public AuthToken issue(UserInfo user) {
+        long now = epochSeconds.getAsLong();
+        return new AuthToken(UUID.randomUUID().toString(), now, now + ttlSeconds, user.getEmail(), user.getAuth(), user.getName());
+    }
+
+    public String encode(AuthToken token) {
+        String payload = String.join("\n", VERSION, token.getTokenId(), String.valueOf(token.getIssuedAt()),
+                String.valueOf(token.getExpiresAt()), token.getEmail(), token.getAuth(),
+                token.getName() == null ? "" : token.getName());
+        String body = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return body + "." + ENCODER.encodeToString(sign(body));
+    }
+
+    /**
+     * 서명, 만료, 폐기 여부를 확인한다.
+     * @return 유효하지 않으면 null
+     */
+    public AuthToken verify(String value) {
+        if (StringUtils.hasLength(value) == false) {
+            return null;
+        }
+        int dot = value.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String body = value.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(value.substring(dot + 1));
+            if (MessageDigest.isEqual(signature, sign(body)) == false) { // 비교 시간으로 서명을 추측하지 못하게
+                return null;
+            }
+            String[] fields = new String(DECODER.decode(body), StandardCharsets.UTF_8).split("\n", 7);
+            if (fields.length != 7 || VERSION.equals(fields[0]) == false) {
+                return null;
+            }
+            AuthToken token = new AuthToken(fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3]),
+                    fields[4], fields[5], fields[6]);
+            if (token.getExpiresAt() <= epochSeconds.getAsLong() || revocationList.isRevoked(token.getTokenId())) {
+                return null;
+            }
+            return token;
+        } catch (IllegalArgumentException e) { // base64 / 숫자 형식 오류
+            return null;
+        }
+    }
+
+    // 발급된 지 refresh-after-seconds가 지난 토큰은 응답 때 새로 발급한다. (사용 중이면 로그인이 유지되도록)
+    public boolean needsRefresh(AuthToken token) {
+        return epochSeconds.getAsLong() - token.getIssuedAt() >= refreshAfterSeconds;
+    }
+
+    /**
+     * 로그아웃, 이 노드에서 바로 폐기하고 변경 로그에 남겨 다른 노드에도 알린다. (ChangeLogPoller -> revokeRemote)
+     * 변경 로그 기록이 실패해도 이 노드의 로그아웃은 그대로 처리한다.
+     */
+    public void revoke(AuthToken token) {
+        revocationList.revoke(token.getTokenId(), token.getExpiresAt());
+        if (changeLogWriter == null || transactionTemplate == null) { // 스프링 밖에서 만든 경우 (단위 테스트, 벤치마크)
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> changeLogWriter.append(ChangeType.TOKEN,
+                    Collections.singletonList(token.getTokenId() + ":" + token.getExpiresAt())));
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("토큰 폐기를 다른 노드에 알리지 못했습니다. 다른 노드에서는 만료 시각까지 유효합니다.", e);
+        }
+    }
+
+    // 다른 노드에서 로그아웃한 토큰 (ChangeLogPoller), key = 토큰ID:만료 시각
+    public void revokeRemote(String key) {
+        int separator = key.lastIndexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            revocationList.revoke(key.substring(0, separator), Long.parseLong(key.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("잘못된 토큰 폐기 로그 : {}", key);
+        }
+    }
+
+    // 토큰의 사용자 정보로 인증 객체를 만든다. (principal은 폼 로그인과 같은 UserInfo, 비밀번호는 없음)
+    public Authentication toAuthentication(AuthToken token) {
+        UserInfo user = UserInfo.builder()
+                .email(token.getEmail())
+                .name(token.getName())
+                .auth(token.getAuth())
+                .build();
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    public ResponseCookie cookie(String value) {
+        return cookieBuilder(value).maxAge(Duration.ofSeconds(ttlSeconds)).build();
+    }
+
+    public ResponseCookie expiredCookie() {
+        return cookieBuilder("").maxAge(Duration.ZERO).build();
+    }
+
+    private ResponseCookie.ResponseCookieBuilder cookieBuilder(String value) {
+        return ResponseCookie.from(COOKIE_NAME, value)
+                .path("/")
+                .httpOnly(true) // 스크립트에서 읽지 못하게
+                .secure(secureCookie)
+                .sameSite("Lax");
+    }
+
+    private byte[] sign(String body) {
+        return macs.get().doFinal(body.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] keyOf(String secret, boolean stateless) {
+        if (StringUtils.hasText(secret)) {
+            byte[] key = Base64.getDecoder().decode(secret.trim());
+            if (key.length < 32) {
+                throw new IllegalStateException("security.token.secret은 32바이트 이상이어야 합니다.");
+            }
+            return key;
+        }
+        if (stateless) {
+            log.warn("security.token.secret이 없어 임의의 키를 사용합니다. 재시작하거나 다른 노드로 가면 다시 로그인해야 합니다.");
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private static Mac newMac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
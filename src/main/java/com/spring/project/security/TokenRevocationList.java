@@ -0,0 +1,55 @@
+package com.spring.project.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 로그아웃한 토큰 목록
+ *
+ * 토큰은 서버에 저장하지 않으므로 로그아웃해도 만료 전까지는 유효하다. 그래서 로그아웃한 토큰 ID를 토큰이 만료될 때까지만 기억한다.
+ * 항목마다 남은 유효 시간이 지나면 사라진다. 크기 제한은 두지 않는다. (크기로 밀어내면 만료 전인 토큰이 다시 유효해진다.)
+ * 남는 항목 수는 security.token.ttl-seconds 동안의 로그아웃 수를 넘지 않는다.
+ * 목록은 노드마다 따로 가진다. 다른 노드에는 변경 로그(ChangeType.TOKEN)로 전달되므로 changelog.poll-interval-ms 안에 반영된다.
+ */
+class TokenRevocationList {
+
+    // tokenId -> 토큰 만료 시각 (epoch 초)
+    private final Cache<String, Long> revoked;
+
+    TokenRevocationList(LongSupplier epochSeconds) {
+        this.revoked = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String tokenId, Long expiresAt, long now) {
+                        return TimeUnit.SECONDS.toNanos(Math.max(expiresAt - epochSeconds.getAsLong(), 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenId, Long expiresAt, long now, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenId, Long expiresAt, long now, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    void revoke(String tokenId, long expiresAt) {
+        revoked.put(tokenId, expiresAt);
+    }
+
+    boolean isRevoked(String tokenId) {
+        return revoked.getIfPresent(tokenId) != null;
+    }
+
+    long size() {
+        return revoked.estimatedSize();
+    }
+}
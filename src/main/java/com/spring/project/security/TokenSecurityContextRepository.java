@@ -0,0 +1,114 @@
+package com.spring.project.security;
+
+import com.spring.project.entity.UserInfo;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SaveContextOnUpdateOrErrorResponseWrapper;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * HTTP 세션 대신 서명된 토큰 쿠키에 로그인 상태를 저장하는 SecurityContextRepository (security.session.mode=stateless)
+ *
+ * 요청이 오면 쿠키의 토큰을 검증해서 SecurityContext를 만들고 (세션 / DB 조회 없음),
+ * 로그인 직후나 토큰이 오래되었을 때만 응답에 새 토큰 쿠키를 내려준다.
+ * 재발급된 이전 토큰은 폐기하지 않고 스스로 만료되게 둔다. (이전 쿠키로 동시에 나간 요청 / 다른 탭이 로그아웃되지 않도록)
+ * 로그인 성공 후 바로 redirect 하면서 응답이 커밋되므로, HttpSessionSecurityContextRepository처럼 응답을 감싸서 커밋 직전에 저장한다.
+ * 로그아웃하면 토큰을 폐기 목록에 넣고 쿠키를 지운다. (LogoutHandler)
+ */
+public class TokenSecurityContextRepository implements SecurityContextRepository, LogoutHandler {
+
+    private static final String LOADED_TOKEN = TokenSecurityContextRepository.class.getName() + ".LOADED_TOKEN";
+
+    private final AuthTokenService authTokenService;
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    public TokenSecurityContextRepository(AuthTokenService authTokenService) {
+        this.authTokenService = authTokenService;
+    }
+
+    @Override
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        HttpServletRequest request = requestResponseHolder.getRequest();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        AuthToken token = loadToken(request);
+        if (token != null) {
+            request.setAttribute(LOADED_TOKEN, token);
+            context.setAuthentication(authTokenService.toAuthentication(token));
+        }
+        requestResponseHolder.setResponse(new SaveToCookieResponseWrapper(requestResponseHolder.getResponse(), request));
+        return context;
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        SaveToCookieResponseWrapper wrapper = WebUtils.getNativeResponse(response, SaveToCookieResponseWrapper.class);
+        if (wrapper != null && wrapper.isContextSaved()) { // 응답이 커밋될 때 이미 저장함
+            return;
+        }
+        writeCookie(context, request, response);
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return loadToken(request) != null;
+    }
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        AuthToken token = loadToken(request);
+        if (token != null) {
+            authTokenService.revoke(token);
+        }
+        request.removeAttribute(LOADED_TOKEN);
+        response.addHeader(HttpHeaders.SET_COOKIE, authTokenService.expiredCookie().toString());
+    }
+
+    private AuthToken loadToken(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, AuthTokenService.COOKIE_NAME);
+        return cookie == null ? null : authTokenService.verify(cookie.getValue());
+    }
+
+    // 로그인 직후(쿠키의 사용자와 다름) 또는 토큰이 오래되었을 때만 쿠키를 새로 쓴다.
+    private void writeCookie(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication == null || trustResolver.isAnonymous(authentication)
+                || authentication.getPrincipal() instanceof UserInfo == false || response.isCommitted()) {
+            return;
+        }
+        UserInfo user = (UserInfo) authentication.getPrincipal();
+        AuthToken loaded = (AuthToken) request.getAttribute(LOADED_TOKEN);
+        if (loaded != null && loaded.getEmail().equals(user.getEmail()) && authTokenService.needsRefresh(loaded) == false) {
+            return;
+        }
+        AuthToken issued = authTokenService.issue(user);
+        request.setAttribute(LOADED_TOKEN, issued);
+        response.addHeader(HttpHeaders.SET_COOKIE, authTokenService.cookie(authTokenService.encode(issued)).toString());
+    }
+
+    private class SaveToCookieResponseWrapper extends SaveContextOnUpdateOrErrorResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        SaveToCookieResponseWrapper(HttpServletResponse response, HttpServletRequest request) {
+            super(response, false);
+            this.request = request;
+        }
+
+        @Override
+        protected void saveContext(SecurityContext context) {
+            writeCookie(context, request, (HttpServletResponse) getResponse());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.spring.project.service;
+
+import com.spring.project.changelog.ChangeLogWriter;
+import com.spring.project.changelog.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 게시글 조회수 write-behind 카운터
+ *
+ * 상세 조회마다 UPDATE를 날리지 않고 boardIdx별 LongAdder에 누적해 두었다가,
+ * 스케줄러가 주기적으로 "hit_cnt = hit_cnt + ?" 배치 UPDATE로 DB에 반영한다.
+ * 증가는 잠금 없이 LongAdder에 더하기만 하므로 같은 게시글을 동시에 조회해도 서로 기다리지 않는다.
+ *
+ * flush로 0이 된 카운터는 지워서 한 번이라도 조회된 모든 게시글의 항목이 계속 쌓이지 않게 한다.
+ * 지우는 것과 조회가 겹치면
+ *  - 지운 뒤에 확인한 조회는 지워진 카운터에 더한 것을 되돌리고 새 카운터에 다시 더한다. (increment)
+ *  - 지우기 직전에 더하고 확인까지 끝난 조회는 지워진 카운터에 남는다.
+ * 그래서 지운 카운터는 바로 버리지 않고 RETIRED_HOLD_NANOS 동안 flush마다 남은 값(되돌리기 전의 +1, 되돌린 뒤의 -1 포함)을 반영한다. (retired)
+ */
+@Slf4j
+@Component
+public class BoardHitCounter {
+
+    private static final String FLUSH_SQL = "UPDATE t_jpa_board SET hit_cnt = hit_cnt + ? WHERE board_idx = ?";
+
+    // 지운 카운터를 지켜보는 시간 (더하고 되돌리기까지 이보다 오래 걸리는 조회는 없다고 본다.)
+    private static final long RETIRED_HOLD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<Integer, LongAdder> counters = new ConcurrentHashMap<>();
+
+    // flush에서 지운 카운터 (flush 안에서만 쓴다.)
+    private List<RetiredCounter> retired = new ArrayList<>();
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    BoardSummaryWriter boardSummaryWriter;
+
+    @Autowired
+    ChangeLogWriter changeLogWriter;
+
+    /**
+     * 조회수 1 증가
+     * @return 아직 DB에 반영되지 않은 조회수
+     */
+    public long increment(int boardIdx) {
+        while (true) {
+            LongAdder adder = counters.get(boardIdx);
+            if (adder == null) {
+                adder = counters.computeIfAbsent(boardIdx, key -> new LongAdder());
+            }
+            adder.increment();
+            if (counters.get(boardIdx) == adder) {
+                return adder.sum();
+            }
+            // 더하는 사이 flush가 이 카운터를 지웠다. 되돌리고 새 카운터에 다시 더한다.
+            adder.decrement();
+        }
+    }
+
+    // 아직 DB에 반영되지 않은 조회수
+    public long pending(int boardIdx) {
+        LongAdder adder = counters.get(boardIdx);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    // 삭제된 게시글의 카운터는 더 이상 반영할 필요가 없다.
+    public void discard(int boardIdx) {
+        counters.remove(boardIdx);
+    }
+
+    /**
+     * 누적된 조회수를 배치 UPDATE로 반영
+     * 반영에 성공한 만큼만 카운터에서 빼기 때문에, flush 도중 들어온 조회수는 다음 flush로 넘어가고 유실되지 않는다.
+     */
+    @Scheduled(fixedDelayString = "${board.hit.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        long now = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>();
+        List<LongAdder> adders = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        Set<Integer> boardIdxs = new HashSet<>();
+        for (Map.Entry<Integer, LongAdder> entry : counters.entrySet()) {
+            collect(entry.getKey(), entry.getValue(), batch, adders, deltas, boardIdxs);
+        }
+        // 지운 카운터는 남은 값이 없고 지켜보는 시간이 지났을 때만 버린다.
+        List<RetiredCounter> stillRetired = new ArrayList<>();
+        for (RetiredCounter counter : retired) {
+            boolean collected = collect(counter.boardIdx, counter.adder, batch, adders, deltas, boardIdxs);
+            if (collected || now - counter.retiredAt < RETIRED_HOLD_NANOS) {
+                stillRetired.add(counter);
+            }
+        }
+        retired = stillRetired;
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            // 원본과 목록용 요약 테이블의 조회수를 한 트랜잭션에서 같이 올린다.
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+                boardSummaryWriter.addHits(batch);
+                changeLogWriter.append(ChangeType.BOARD_HITS, boardIdxs); // 다른 노드의 게시글 캐시 무효화
+            });
+        } catch (RuntimeException e) {
+            // 실패한 조회수는 카운터에 그대로 남겨두고 다음 flush에서 다시 시도
+            log.warn("조회수 반영 실패 ({}건), 다음 주기에 재시도", batch.size(), e);
+            return;
+        }
+
+        for (int i = 0; i < adders.size(); i++) {
+            adders.get(i).add(-deltas.get(i));
+        }
+        // 그 사이 새 조회가 없어서 0이 된 카운터는 지우고 retired로 옮긴다.
+        for (Integer boardIdx : boardIdxs) {
+            LongAdder adder = counters.get(boardIdx);
+            if (adder != null && adder.sum() == 0 && counters.remove(boardIdx, adder)) {
+                retired.add(new RetiredCounter(boardIdx, adder, now));
+            }
+        }
+        eventPublisher.publishEvent(new BoardHitFlushedEvent(boardIdxs));
+    }
+
+    // 반영할 값이 있으면 배치에 담는다. (되돌린 조회 때문에 음수일 수도 있다.)
+    private boolean collect(int boardIdx, LongAdder adder, List<Object[]> batch,
+                            List<LongAdder> adders, List<Long> deltas, Set<Integer> boardIdxs) {
+        long delta = adder.sum();
+        if (delta == 0) {
+            return false;
+        }
+        batch.add(new Object[]{delta, boardIdx});
+        adders.add(adder);
+        deltas.add(delta);
+        boardIdxs.add(boardIdx);
+        return true;
+    }
+
+    // 애플리케이션 종료 시 남은 조회수를 모두 반영
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    @AllArgsConstructor
+    private static class RetiredCounter {
+        private final int boardIdx;
+        private final LongAdder adder;
+        private final long retiredAt;
+    }
+}
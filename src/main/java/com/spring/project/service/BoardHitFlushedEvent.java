@@ -0,0 +1,13 @@
+package com.spring.project.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+// 조회수가 DB에 반영된 게시글 목록 (BoardHitCounter.flush 이후 발행)
+@Getter
+@AllArgsConstructor
+public class BoardHitFlushedEvent {
+    private final Set<Integer> boardIdxs;
+}
@@ -0,0 +1,179 @@
+package com.spring.project.service;
+
+import com.spring.project.util.FileUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 삭제 표시된 게시글 / 첨부파일을 실제로 지운다. (BoardServiceImpl.deleteBoard / deleteBoardFile 은 표시만 하고 끝남)
+ *
+ * 1. 표시된 지 board.purge.grace-seconds 가 지난 첨부파일을 board.purge.batch-size 개씩 읽어서
+ *    축소본 행과 첨부파일 행을 IN (...) 한 문장씩으로 지우고 (한 트랜잭션)
+ * 2. 커밋된 뒤에 원본 / 축소본 파일을 저장소에서 release 한다. (다른 행이 같은 파일을 참조하면 남는다.)
+ * 3. 첨부파일 행이 모두 지워진 게시글 행을 같은 크기로 묶어서 지운다. (t_jpa_file의 외래 키 때문에 순서가 중요)
+ *
+ * 한 번에 batch-size x max-batches 행까지만 지우고 나머지는 다음 주기로 넘긴다. (긴 트랜잭션 / 긴 잠금 방지)
+ * 여러 노드에서 동시에 돌면 같은 행을 두 번 지우려 할 뿐 결과는 같다.
+ * 남은 삭제 대기 수는 board.purge.backlog{kind=board|file} 게이지로 볼 수 있다. (실행할 때마다 갱신)
+ */
+@Slf4j
+@Component
+public class BoardPurger {
+
+    private static final String SELECT_FILES =
+            "SELECT idx, stored_file_path FROM t_jpa_file WHERE deleted_datetime < :cutoff ORDER BY idx LIMIT :limit";
+
+    private static final String SELECT_RENDITION_PATHS =
+            "SELECT stored_file_path FROM t_jpa_file_rendition WHERE file_idx IN (:fileIdxs)";
+
+    private static final String DELETE_RENDITIONS = "DELETE FROM t_jpa_file_rendition WHERE file_idx IN (:fileIdxs)";
+
+    private static final String DELETE_FILES = "DELETE FROM t_jpa_file WHERE idx IN (:fileIdxs)";
+
+    // 첨부파일 행이 남아 있는 게시글은 외래 키 때문에 지울 수 없으므로 다음 주기로 넘긴다.
+    private static final String SELECT_BOARDS =
+            "SELECT b.board_idx FROM t_jpa_board b WHERE b.deleted_datetime < :cutoff " +
+            "AND NOT EXISTS (SELECT 1 FROM t_jpa_file f WHERE f.board_idx = b.board_idx) " +
+            "ORDER BY b.board_idx LIMIT :limit";
+
+    private static final String DELETE_BOARDS = "DELETE FROM t_jpa_board WHERE board_idx IN (:boardIdxs)";
+
+    private static final String COUNT_BOARD_BACKLOG = "SELECT COUNT(*) FROM t_jpa_board WHERE deleted_datetime IS NOT NULL";
+
+    private static final String COUNT_FILE_BACKLOG = "SELECT COUNT(*) FROM t_jpa_file WHERE deleted_datetime IS NOT NULL";
+
+    private final AtomicLong boardBacklog = new AtomicLong();
+
+    private final AtomicLong fileBacklog = new AtomicLong();
+
+    @Autowired
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    FileUtils fileUtils;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${board.purge.enabled:true}")
+    boolean enabled;
+
+    @Value("${board.purge.grace-seconds:300}")
+    long graceSeconds;
+
+    @Value("${board.purge.batch-size:500}")
+    int batchSize;
+
+    @Value("${board.purge.max-batches:20}")
+    int maxBatches;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("board.purge.backlog", boardBacklog, AtomicLong::get).tag("kind", "board").register(meterRegistry);
+        Gauge.builder("board.purge.backlog", fileBacklog, AtomicLong::get).tag("kind", "file").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${board.purge.interval-ms:60000}")
+    public void scheduledPurge() {
+        if (enabled == false) {
+            return;
+        }
+        try {
+            purge();
+        } catch (DataAccessException e) {
+            log.warn("삭제 대기 정리 실패, 다음 주기에 재시도", e);
+        }
+    }
+
+    /**
+     * grace-seconds 가 지난 삭제 대기 행을 지운다.
+     * @return 지운 첨부파일 수 + 게시글 수
+     */
+    public synchronized int purge() {
+        long started = System.currentTimeMillis();
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusSeconds(graceSeconds));
+
+        int files = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int purged = purgeFiles(cutoff);
+            files += purged;
+            if (purged < batchSize) {
+                break;
+            }
+        }
+        int boards = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int purged = purgeBoards(cutoff);
+            boards += purged;
+            if (purged < batchSize) {
+                break;
+            }
+        }
+
+        boardBacklog.set(namedParameterJdbcTemplate.getJdbcTemplate().queryForObject(COUNT_BOARD_BACKLOG, Long.class));
+        fileBacklog.set(namedParameterJdbcTemplate.getJdbcTemplate().queryForObject(COUNT_FILE_BACKLOG, Long.class));
+        if (files + boards > 0) {
+            log.info("삭제 대기 정리 : 게시글 {}건, 첨부파일 {}건, 남은 게시글 {}건, {}ms",
+                    boards, files, boardBacklog.get(), System.currentTimeMillis() - started);
+        }
+        return files + boards;
+    }
+
+    private int purgeFiles(Timestamp cutoff) {
+        List<Integer> fileIdxs = new ArrayList<>();
+        List<String> storedFilePaths = new ArrayList<>();
+        namedParameterJdbcTemplate.query(SELECT_FILES, new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("limit", batchSize), rs -> {
+            fileIdxs.add(rs.getInt("idx"));
+            storedFilePaths.add(rs.getString("stored_file_path"));
+        });
+        if (fileIdxs.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource("fileIdxs", fileIdxs);
+        // 이 사이에 만들어진 축소본은 ImageRenditionService가 원본이 지워진 것을 보고 스스로 지운다.
+        storedFilePaths.addAll(namedParameterJdbcTemplate.queryForList(SELECT_RENDITION_PATHS, params, String.class));
+        transactionTemplate.executeWithoutResult(status -> {
+            namedParameterJdbcTemplate.update(DELETE_RENDITIONS, params);
+            namedParameterJdbcTemplate.update(DELETE_FILES, params);
+        });
+        // 행이 지워진 뒤에 파일을 지운다. (롤백되면 행이 남으므로 파일도 남아야 한다.)
+        fileUtils.releaseFiles(new LinkedHashSet<>(storedFilePaths));
+        meterRegistry.counter("board.purge.purged", "kind", "file").increment(fileIdxs.size());
+        return fileIdxs.size();
+    }
+
+    private int purgeBoards(Timestamp cutoff) {
+        List<Integer> boardIdxs = namedParameterJdbcTemplate.queryForList(SELECT_BOARDS, new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("limit", batchSize), Integer.class);
+        if (boardIdxs.isEmpty()) {
+            return 0;
+        }
+        namedParameterJdbcTemplate.update(DELETE_BOARDS, new MapSqlParameterSource("boardIdxs", boardIdxs));
+        meterRegistry.counter("board.purge.purged", "kind", "board").increment(boardIdxs.size());
+        return boardIdxs.size();
+    }
+}
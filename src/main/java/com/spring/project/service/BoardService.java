@@ -1,22 +1,40 @@
 package com.spring.project.service;
 
+import com.spring.project.dto.BoardListDto;
 import com.spring.project.entity.Board;
 import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.entity.BoardFileRendition;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.List;
 
 public interface BoardService {
 
-    List<Board> selectBoardList() throws Exception;
+    // 한 페이지에 보여줄 수 있는 최대 게시글 수
+    int MAX_PAGE_SIZE = 100;
+
+    // 요청한 페이지 크기를 1 ~ MAX_PAGE_SIZE로 맞춘 값 (목록 / 검색 조회가 실제로 읽는 수)
+    static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    List<BoardListDto> selectBoardList(int lastBoardIdx, int size) throws Exception;
+
+    List<BoardListDto> searchBoardList(String query, int page, int size) throws Exception;
 
     void saveBoard(Board board, MultipartHttpServletRequest multipartHttpServletRequest, int hitCnt) throws Exception;
 
+    // 첨부파일을 임시 파일 없이 요청 본문에서 바로 저장 (POST /boardwrite/stream)
+    void saveBoardStreaming(HttpServletRequest request) throws Exception;
+
     Board selectBoardDetail(int boardIdx) throws Exception;
 
     void deleteBoard(int boardIdx) throws Exception;
 
     BoardFileEntity selectBoardFileInformation(int idx, int boardIdx) throws Exception;
 
+    BoardFileRendition selectBoardFileRendition(int fileIdx, String sizeName) throws Exception;
+
     void deleteBoardFile(int idx, int boardIdx) throws Exception;
 }
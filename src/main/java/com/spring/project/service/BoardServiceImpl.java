@@ -1,15 +1,45 @@
 package com.spring.project.service;
 
+import com.spring.project.changelog.ChangeLogWriter;
+import com.spring.project.changelog.ChangeType;
+import com.spring.project.config.CacheConfig;
+import com.spring.project.dto.BoardListDto;
 import com.spring.project.entity.Board;
 import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.entity.BoardFileRendition;
+import com.spring.project.pagecache.BoardPageCache;
+import com.spring.project.rendition.ImageRenditionService;
+import com.spring.project.rendition.RenditionSize;
+import com.spring.project.repository.BoardFileRenditionRepository;
 import com.spring.project.repository.BoardRepository;
+import com.spring.project.repository.BoardSummaryRepository;
+import com.spring.project.search.BoardSearchIndex;
+import com.spring.project.search.SearchHits;
 import com.spring.project.util.FileUtils;
+import com.spring.project.util.StreamedUpload;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.MutablePropertyValues;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 
+import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -21,29 +51,127 @@ public class BoardServiceImpl implements BoardService{
     @Autowired
     FileUtils fileUtils;
 
+    @Autowired
+    BoardHitCounter boardHitCounter;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    BoardSearchIndex boardSearchIndex;
+
+    @Autowired
+    BoardFileRenditionRepository boardFileRenditionRepository;
+
+    @Autowired
+    ImageRenditionService imageRenditionService;
+
+    @Autowired
+    BoardSummaryRepository boardSummaryRepository;
+
+    @Autowired
+    BoardSummaryWriter boardSummaryWriter;
+
+    @Autowired
+    BoardPageCache boardPageCache;
+
+    @Autowired
+    ChangeLogWriter changeLogWriter;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Override
+    @Timed("board.service")
+    public List<BoardListDto> selectBoardList(int lastBoardIdx, int size) throws Exception {
+        // lastBoardIdx = 이전 페이지의 마지막 글번호, 첫 페이지는 0 이하로 넘어온다.
+        int cursor = lastBoardIdx > 0 ? lastBoardIdx : Integer.MAX_VALUE;
+        int limit = BoardService.pageSize(size);
+        // 첨부파일 수와 썸네일까지 미리 계산된 요약 테이블에서 한 번에 읽는다.
+        return boardSummaryRepository.findBoardListBefore(cursor, PageRequest.of(0, limit));
+    }
+
     @Override
-    public List<Board> selectBoardList() throws Exception {
-        return boardRepository.findAllByOrderByBoardIdxDesc();
+    @Timed("board.service")
+    public List<BoardListDto> searchBoardList(String query, int page, int size) throws Exception {
+        int limit = BoardService.pageSize(size);
+        SearchHits hits = boardSearchIndex.search(query, Math.max(page, 0), limit);
+        if (hits.getBoardIdxs().isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // DB에서는 순서 없이 읽어오므로 검색 점수 순서대로 다시 정렬 (색인 이후 삭제된 글은 빠진다)
+        Map<Integer, BoardListDto> byBoardIdx = new HashMap<>();
+        for (BoardListDto dto : boardSummaryRepository.findBoardListByBoardIdxIn(hits.getBoardIdxs())) {
+            byBoardIdx.put(dto.getBoardIdx(), dto);
+        }
+        List<BoardListDto> list = new ArrayList<>();
+        for (Integer boardIdx : hits.getBoardIdxs()) {
+            BoardListDto dto = byBoardIdx.get(boardIdx);
+            if (dto != null) {
+                list.add(dto);
+            }
+        }
+        return list;
     }
 
     @Override
+    @Timed("board.service")
+    @CacheEvict(cacheNames = CacheConfig.BOARDS, key = "#board.boardIdx")
     public void saveBoard(Board board, MultipartHttpServletRequest multipartHttpServletRequest, int hitCnt) throws Exception {
-        board.setCreatorId("admin");
         board.setHitCnt(hitCnt);
-        List<BoardFileEntity> list = fileUtils.parseFileInfo(multipartHttpServletRequest);
+        storeBoard(board, fileUtils.parseFileInfo(multipartHttpServletRequest));
+    }
+
+    @Override
+    @Timed("board.service")
+    public void saveBoardStreaming(HttpServletRequest request) throws Exception {
+        StreamedUpload upload = fileUtils.parseStreamingUpload(request);
+        Board board = new Board();
+        // 새 글만 쓰므로 제목 / 내용만 받는다. (boardIdx 등으로 다른 글을 덮어쓰지 못하게)
+        WebDataBinder binder = new WebDataBinder(board);
+        binder.setAllowedFields("title", "content");
+        binder.bind(new MutablePropertyValues(upload.getFields()));
+        storeBoard(board, upload.getFileList());
+    }
+
+    // 첨부파일이 저장소에 저장(pin)된 뒤 게시글을 저장하고 요약 / 캐시 / 검색 색인 / 축소본을 갱신한다.
+    private void storeBoard(Board board, List<BoardFileEntity> list) throws Exception {
+        board.setCreatorId("admin");
         if (CollectionUtils.isEmpty(list) == false) {
             board.setFileList(list);
         }
-        boardRepository.save(board);
+        boolean saved = false;
+        try {
+            // 게시글, 목록 요약, 변경 로그(다른 노드 캐시 무효화)를 한 트랜잭션에서 쓴다.
+            transactionTemplate.executeWithoutResult(status -> {
+                boardRepository.save(board);
+                List<Integer> boardIdxs = Collections.singletonList(board.getBoardIdx());
+                boardSummaryWriter.refresh(boardIdxs);
+                changeLogWriter.append(ChangeType.BOARD, boardIdxs);
+            });
+            saved = true;
+        } finally {
+            // 게시글이 저장되지 않았으면 이미 저장소에 쓴 첨부파일도 되돌린다.
+            fileUtils.completeUpload(list, saved);
+        }
+        boardPageCache.invalidateLists();
+        // 썸네일 등 축소본은 응답을 기다리게 하지 않고 백그라운드에서 만든다.
+        imageRenditionService.generateAsync(list);
+        boardSearchIndex.index(board.getBoardIdx(), board.getTitle(), board.getContent());
     }
 
     @Override
+    @Timed("board.service")
+    @Transactional(readOnly = true) // 상세 조회는 DB에 쓰지 않는다. 조회수는 BoardHitCounter가 모아서 반영
     public Board selectBoardDetail(int boardIdx) throws Exception {
-        Optional<Board> optional = boardRepository.findById(boardIdx);
+        Optional<Board> optional = boardRepository.findWithFileListByBoardIdx(boardIdx);
         if (optional.isPresent()){
-            Board board = optional.get();
-            board.setHitCnt(board.getHitCnt() + 1);
-            boardRepository.save(board);
+            // 캐시된 객체는 다른 요청과 공유되므로 복사본에 조회수를 반영한다.
+            Board board = new Board();
+            BeanUtils.copyProperties(optional.get(), board);
+            // 화면에는 DB 값 + 아직 반영되지 않은 조회수를 보여준다.
+            board.setHitCnt(board.getHitCnt() + (int) boardHitCounter.increment(boardIdx));
 
             return board;
         }else {
@@ -52,18 +180,72 @@ public class BoardServiceImpl implements BoardService{
     }
 
     @Override
+    @Timed("board.service")
+    @CacheEvict(cacheNames = CacheConfig.BOARDS, key = "#boardIdx")
     public void deleteBoard(int boardIdx) throws Exception {
-        boardRepository.deleteById(boardIdx);
+        // 게시글과 첨부파일에 삭제 표시만 한다. (첨부파일 수와 상관없이 UPDATE 두 번)
+        // 행, 축소본, 저장 파일은 BoardPurger가 board.purge.grace-seconds 뒤에 모아서 지운다.
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            boardRepository.markBoardDeleted(boardIdx, now);
+            boardRepository.markBoardFilesDeleted(boardIdx, now);
+            boardSummaryWriter.refresh(Collections.singletonList(boardIdx));
+            changeLogWriter.append(ChangeType.BOARD, Collections.singletonList(boardIdx));
+        });
+        boardPageCache.invalidateLists();
+        boardHitCounter.discard(boardIdx);
+        boardSearchIndex.remove(boardIdx);
     }
 
     @Override
+    @Timed("board.service")
     public BoardFileEntity selectBoardFileInformation(int idx, int boardIdx) throws Exception {
         BoardFileEntity boardFile = boardRepository.findBoardFile(idx, boardIdx);
         return boardFile;
     }
 
     @Override
+    @Timed("board.service")
+    public BoardFileRendition selectBoardFileRendition(int fileIdx, String sizeName) throws Exception {
+        if (RenditionSize.of(sizeName) == null) {
+            return null;
+        }
+        return boardFileRenditionRepository.findByFileIdxAndSizeName(fileIdx, sizeName);
+    }
+
+    @Override
+    @Timed("board.service")
+    @CacheEvict(cacheNames = CacheConfig.BOARDS, key = "#boardIdx")
     public void deleteBoardFile(int idx, int boardIdx) throws Exception {
-        boardRepository.deleteBoardFile(idx, boardIdx);
+        // 게시글 삭제와 같이 표시만 하고, 축소본과 저장 파일은 BoardPurger가 지운다.
+        Boolean deleted = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (boardRepository.markBoardFileDeleted(idx, boardIdx, now) == 0) {
+                return false;
+            }
+            // 상세 페이지 버전(updateDatetime)이 바뀌어야 지운 첨부파일이 캐시 / 304로 다시 보이지 않는다.
+            boardRepository.touchBoard(boardIdx, now);
+            boardSummaryWriter.refresh(Collections.singletonList(boardIdx));
+            changeLogWriter.append(ChangeType.BOARD, Collections.singletonList(boardIdx));
+            return true;
+        });
+        if (Boolean.TRUE.equals(deleted)) {
+            boardPageCache.invalidateLists();
+        }
+    }
+
+    /**
+     * 조회수가 DB에 반영된 게시글은 캐시에서 내려서 다음 조회 때 새 값을 읽게 한다.
+     * 조회마다 지우지 않고 flush 주기마다 한 번만 지우기 때문에 조회가 몰리는 게시글도 캐시가 유지된다.
+     */
+    @EventListener
+    public void onBoardHitFlushed(BoardHitFlushedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.BOARDS);
+        if (cache == null) {
+            return;
+        }
+        for (Integer boardIdx : event.getBoardIdxs()) {
+            cache.evict(boardIdx);
+        }
     }
 }
@@ -0,0 +1,110 @@
+package com.spring.project.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * t_jpa_board_summary(BoardSummary) 갱신
+ *
+ * 값을 하나씩 고치지 않고 바뀐 게시글의 요약 행을 원본(t_jpa_board, t_jpa_file)에서 INSERT ... SELECT 로 다시 만든다.
+ * JDBC로 읽으므로 엔티티의 @Where가 걸리지 않는다. 삭제 표시된 게시글 / 첨부파일은 조건을 직접 걸어서 뺀다.
+ * 그래서 갱신이 한 번 빠지더라도 다음 갱신이나 기동 시 backfill 때 원본과 다시 맞춰진다.
+ * 썸네일은 이미지 확장자(jpg, jpeg, png, gif)인 첨부파일 중 가장 먼저 저장된 것이다. (import로 들어온 다른 파일은 제외)
+ * 조회수만은 매번 다시 계산하지 않고 BoardHitCounter가 t_jpa_board와 같은 트랜잭션에서 더한다. (addHits)
+ */
+@Slf4j
+@Component
+public class BoardSummaryWriter {
+
+    private static final int BACKFILL_CHUNK = 10_000;
+
+    private static final String INSERT_SUMMARY =
+            "INSERT INTO t_jpa_board_summary (board_idx, title, hit_cnt, created_datetime, file_count, thumbnail_file_idx) " +
+            "SELECT b.board_idx, b.title, b.hit_cnt, b.created_datetime, " +
+            "(SELECT COUNT(*) FROM t_jpa_file f WHERE f.board_idx = b.board_idx AND f.deleted_datetime IS NULL), " +
+            "(SELECT MIN(f.idx) FROM t_jpa_file f WHERE f.board_idx = b.board_idx AND f.deleted_datetime IS NULL " +
+            "AND (LOWER(f.stored_file_path) LIKE '%.jpg' OR LOWER(f.stored_file_path) LIKE '%.jpeg' " +
+            "OR LOWER(f.stored_file_path) LIKE '%.png' OR LOWER(f.stored_file_path) LIKE '%.gif')) " +
+            "FROM t_jpa_board b WHERE b.deleted_datetime IS NULL ";
+
+    private static final String REFRESH_DELETE = "DELETE FROM t_jpa_board_summary WHERE board_idx IN (:boardIdxs)";
+
+    private static final String REFRESH_INSERT = INSERT_SUMMARY + "AND b.board_idx IN (:boardIdxs)";
+
+    private static final String BACKFILL_INSERT = INSERT_SUMMARY +
+            "AND b.board_idx > :from AND b.board_idx <= :to " +
+            "AND NOT EXISTS (SELECT 1 FROM t_jpa_board_summary s WHERE s.board_idx = b.board_idx)";
+
+    private static final String BACKFILL_DELETE_ORPHANS =
+            "DELETE FROM t_jpa_board_summary " +
+            "WHERE NOT EXISTS (SELECT 1 FROM t_jpa_board b " +
+            "WHERE b.board_idx = t_jpa_board_summary.board_idx AND b.deleted_datetime IS NULL)";
+
+    private static final String ADD_HITS_SQL = "UPDATE t_jpa_board_summary SET hit_cnt = hit_cnt + ? WHERE board_idx = ?";
+
+    @Autowired
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    // 게시글 저장 / 삭제 / 첨부파일 삭제 후 호출, 삭제 표시된 게시글은 요약 행도 사라진다.
+    @Transactional
+    public void refresh(Collection<Integer> boardIdxs) {
+        if (boardIdxs.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("boardIdxs", boardIdxs);
+        namedParameterJdbcTemplate.update(REFRESH_DELETE, params);
+        namedParameterJdbcTemplate.update(REFRESH_INSERT, params);
+    }
+
+    /**
+     * 조회수 반영 (호출하는 쪽 트랜잭션에 참여)
+     * @param batch [증가량, boardIdx] 목록
+     */
+    @Transactional
+    public void addHits(List<Object[]> batch) {
+        namedParameterJdbcTemplate.getJdbcTemplate().batchUpdate(ADD_HITS_SQL, batch);
+    }
+
+    // 요약 행이 없는 게시글(이전 버전에서 쓴 글, 대량 입력 등)을 채우고 원본이 없거나 삭제 표시된 요약 행은 지운다.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        Thread thread = new Thread(this::backfill, "board-summary-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * boardIdx 구간을 BACKFILL_CHUNK 단위로 나눠 INSERT ... SELECT 한다. (구간마다 한 문장이라 긴 트랜잭션을 만들지 않음)
+     */
+    public synchronized void backfill() {
+        long started = System.currentTimeMillis();
+        try {
+            Map<String, Object> range = namedParameterJdbcTemplate.getJdbcTemplate()
+                    .queryForMap("SELECT MIN(board_idx) AS min_idx, MAX(board_idx) AS max_idx FROM t_jpa_board");
+            long inserted = 0;
+            if (range.get("max_idx") != null) {
+                long min = ((Number) range.get("min_idx")).longValue();
+                long max = ((Number) range.get("max_idx")).longValue();
+                for (long from = min - 1; from < max; from += BACKFILL_CHUNK) {
+                    inserted += namedParameterJdbcTemplate.update(BACKFILL_INSERT, new MapSqlParameterSource()
+                            .addValue("from", from)
+                            .addValue("to", Math.min(from + BACKFILL_CHUNK, max)));
+                }
+            }
+            int deleted = namedParameterJdbcTemplate.getJdbcTemplate().update(BACKFILL_DELETE_ORPHANS);
+            log.info("게시글 요약 backfill 완료 : 추가 {}건, 삭제 {}건, {}ms", inserted, deleted, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("게시글 요약 backfill 실패", e);
+        }
+    }
+}
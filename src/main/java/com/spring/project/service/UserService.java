@@ -1,19 +1,31 @@
 package com.spring.project.service;
 
+import com.spring.project.changelog.ChangeLogWriter;
+import com.spring.project.changelog.ChangeType;
 import com.spring.project.dto.UserInfoDto;
 import com.spring.project.entity.UserInfo;
 import com.spring.project.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
 
 @RequiredArgsConstructor // final이 붙거나 @NotNull이 붙은 필드의 생성자를 자동 생성해주는 lombok 어노테이션
 @Service
 public class UserService implements UserDetailsService { // UserDetailsService 인터페이스는 DB에서 유저 정보를 가져오는 역할을 한다.
     private final UserRepository userRepository;
 
+    private final PasswordEncoder passwordEncoder; // 요청마다 새로 만들지 않고 공용 빈을 사용
+
+    private final ChangeLogWriter changeLogWriter; // 다른 노드의 users 캐시 무효화
+
+    private final TransactionTemplate transactionTemplate;
+
 
     /**
      * Spring Security 필수 메소드 구현
@@ -25,6 +37,8 @@ public class UserService implements UserDetailsService { // UserDetailsService 
 
     // UserDetailsService를 상속 받으면 loadUserByUsername(String) 메소드를 오버라이딩 해야함.
     // 이 메소드에서 DB로부터 회원정보를 가져와 있는 회원인지 아닌지 체크여부를 하기 때문에 필수로 구현해야 함.
+    // findByEmail은 users 캐시(CacheConfig)를 거치므로 TTL 안에서는 DB를 다시 조회하지 않는다.
+    @Timed("user.load")
     @Override // 기본적인 반환 타입은 UserDetails, UserDetails를 상속받은 UserInfo로 반환 타입 지정 (자동으로 다운 캐스팅 됨)
     public UserInfo loadUserByUsername(String email) throws UsernameNotFoundException { // 시큐리티에서 지정한 서비스이기 때문에 이 메소드를 필수로 구현 (로그인)
         return userRepository.findByEmail(email) // DB로부터 회원 email을 가져온다.
@@ -36,15 +50,19 @@ public class UserService implements UserDetailsService { // UserDetailsService 
      * @param infoDto 회원정보가 들어있는 DTO
      * @return 저장되는 회원의 PK
      */
+    @Timed("user.save") // BCrypt 해시 비용이 그대로 보인다.
     public Long save(UserInfoDto infoDto) {
-        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-        infoDto.setPassword(encoder.encode(infoDto.getPassword())); // 입력받은 패스워드를 BCrypt로 암호화
-
-        return userRepository.save(UserInfo.builder()
-                .email(infoDto.getEmail())
-                .auth(infoDto.getAuth())
-                .name(infoDto.getName())
-                .password(infoDto.getPassword()).build()).getUid(); // .getUid() = 저장되는 회원의 Private Key(code)를 리턴
+        infoDto.setPassword(passwordEncoder.encode(infoDto.getPassword())); // 입력받은 패스워드를 BCrypt로 암호화
+        // 해싱은 트랜잭션 밖에서 하고, 회원 저장과 변경 로그만 한 트랜잭션으로 묶는다.
+        return transactionTemplate.execute(status -> {
+            Long uid = userRepository.save(UserInfo.builder()
+                    .email(infoDto.getEmail())
+                    .auth(infoDto.getAuth())
+                    .name(infoDto.getName())
+                    .password(infoDto.getPassword()).build()).getUid(); // .getUid() = 저장되는 회원의 Private Key(code)를 리턴
+            changeLogWriter.append(ChangeType.USER, Collections.singletonList(infoDto.getEmail()));
+            return uid;
+        });
     }
 }
 // Builder 패턴 = 빌더 패턴은 생성 패턴 중 하나이다. 또, 생성 패턴은 인스턴스를 만드는 절차를 추상화하는 패턴이다.
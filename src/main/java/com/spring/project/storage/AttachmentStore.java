@@ -0,0 +1,32 @@
+package com.spring.project.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+
+/**
+ * 첨부파일 저장소
+ *
+ * store()로 저장된 파일은 unpin() 되기 전까지 참조하는 DB 행이 없어도 지워지지 않는다.
+ * (업로드 도중 다른 요청의 release()가 같은 파일을 지우는 것을 막기 위함)
+ */
+public interface AttachmentStore {
+
+    /**
+     * 스트림을 끝까지 읽어서 저장
+     * @param extension 저장 파일 확장자 (ex. ".jpg")
+     */
+    StoredAttachment store(InputStream in, String extension) throws IOException;
+
+    // store()로 잡아둔 pin 해제
+    void unpin(Collection<String> storedFilePaths);
+
+    // 더 이상 참조하는 첨부파일 행이 없는 파일을 삭제
+    void release(Collection<String> storedFilePaths);
+
+    /**
+     * 밖에서 들어온 저장 경로(대량 import 등)를 저장소 형식으로 정규화
+     * @throws IllegalArgumentException 저장소 root 아래가 아닌 경로 (../, 다른 디렉토리의 절대 경로 등)
+     */
+    String normalizeStoredFilePath(String storedFilePath);
+}
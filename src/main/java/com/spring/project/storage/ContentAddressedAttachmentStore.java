@@ -0,0 +1,176 @@
+package com.spring.project.storage;
+
+import com.spring.project.repository.BoardFileRenditionRepository;
+import com.spring.project.repository.BoardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 내용 주소 기반(content-addressed) 첨부파일 저장소
+ *
+ * 파일 내용의 SHA-256 값을 파일명으로 쓰고 해시 앞자리로 디렉토리를 나눈다. (images/blobs/ab/cd/abcd....jpg)
+ * 같은 이미지를 여러 게시글에 올려도 디스크에는 한 번만 저장되고, 노드가 달라도 파일명이 충돌하지 않는다.
+ * 참조 수는 같은 storedFilePath를 가진 t_jpa_file / t_jpa_file_rendition 행의 수로 판단한다. (별도 카운터 테이블을 두지 않아 어긋날 일이 없음)
+ */
+@Slf4j
+@Component
+public class ContentAddressedAttachmentStore implements AttachmentStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // 같은 해시에 대한 저장 / 삭제를 직렬화하기 위한 lock
+    private static final int LOCK_STRIPES = 64;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    // 업로드 중이라 아직 DB 행이 없는 파일 (경로 -> pin 수)
+    private final ConcurrentHashMap<String, Integer> pinned = new ConcurrentHashMap<>();
+
+    private final String root;
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    @Autowired
+    BoardFileRenditionRepository boardFileRenditionRepository;
+
+    public ContentAddressedAttachmentStore(@Value("${file.storage.root:images/blobs}") String root) {
+        this.root = root;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public StoredAttachment store(InputStream in, String extension) throws IOException {
+        Path tmpDir = Paths.get(root, "tmp");
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+
+        // 임시 파일에 쓰면서 해시 계산
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                size += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        String checksum = toHex(digest.digest());
+        String storedFilePath = root + "/" + checksum.substring(0, 2) + "/" + checksum.substring(2, 4) + "/" + checksum + extension;
+        Path target = Paths.get(storedFilePath);
+
+        synchronized (lockFor(storedFilePath)) {
+            pinned.merge(storedFilePath, 1, Integer::sum);
+            try {
+                if (Files.exists(target)) {
+                    // 이미 같은 내용의 파일이 있음 -> 중복 저장하지 않음
+                    Files.delete(tmp);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (FileAlreadyExistsException e) {
+                Files.deleteIfExists(tmp);
+            } catch (IOException | RuntimeException e) {
+                unpin(storedFilePath);
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+        }
+        return new StoredAttachment(storedFilePath, checksum, size);
+    }
+
+    @Override
+    public void unpin(Collection<String> storedFilePaths) {
+        for (String storedFilePath : storedFilePaths) {
+            unpin(storedFilePath);
+        }
+    }
+
+    @Override
+    public void release(Collection<String> storedFilePaths) {
+        for (String storedFilePath : storedFilePaths) {
+            synchronized (lockFor(storedFilePath)) {
+                if (pinned.containsKey(storedFilePath)
+                        || boardRepository.countFileReference(storedFilePath) > 0
+                        || boardFileRenditionRepository.countRenditionReference(storedFilePath) > 0) {
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(Paths.get(storedFilePath));
+                } catch (IOException e) {
+                    log.warn("첨부파일 삭제 실패 : {}", storedFilePath, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String normalizeStoredFilePath(String storedFilePath) {
+        if (storedFilePath == null || storedFilePath.isEmpty()) {
+            throw new IllegalArgumentException("storedFilePath가 없습니다.");
+        }
+        Path rootPath = Paths.get(root).toAbsolutePath().normalize();
+        Path path;
+        try {
+            path = Paths.get(storedFilePath).toAbsolutePath().normalize();
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("잘못된 storedFilePath : " + storedFilePath, e);
+        }
+        // root 자신과 업로드 임시 디렉토리는 첨부파일이 될 수 없다.
+        if (path.startsWith(rootPath) == false || path.equals(rootPath) || path.startsWith(rootPath.resolve("tmp"))) {
+            throw new IllegalArgumentException("첨부파일 저장소(" + root + ") 밖의 storedFilePath : " + storedFilePath);
+        }
+        // store()가 만드는 형식 (root + "/" + 상대 경로)으로 맞춰서 참조 수 계산이 같은 문자열로 되게 한다.
+        return root + "/" + rootPath.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private void unpin(String storedFilePath) {
+        pinned.computeIfPresent(storedFilePath, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private Object lockFor(String storedFilePath) {
+        return locks[(storedFilePath.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,13 @@
+package com.spring.project.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 저장소에 저장된 파일 정보
+@Getter
+@AllArgsConstructor
+public class StoredAttachment {
+    private final String storedFilePath;
+    private final String checksum;
+    private final long fileSize;
+}
@@ -0,0 +1,228 @@
+package com.spring.project.util;
+
+import com.spring.project.metrics.RequestMetricsFilter;
+import com.spring.project.metrics.SqlStatementCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 게시판 핸들러 실행 방식 (board.execution.mode)
+ *
+ * blocking (기본) : 지금처럼 Tomcat 워커 스레드에서 바로 실행한다. (요청당 스레드 하나)
+ * async          : 작업을 별도 실행기에 넘기고 워커 스레드는 바로 반환한다. (DeferredResult / 서블릿 비동기)
+ *                  런타임이 지원하면(JDK 21+) 가상 스레드, 아니면 board.execution.threads 크기의 스레드 풀을 쓴다.
+ *                  동시에 처리 중인 작업은 board.execution.max-in-flight 개로 제한하고, 넘치면 바로 503으로 거절한다.
+ *
+ * DB나 디스크가 느려져도 워커 스레드가 묶이지 않으므로 로그인 / 정적 파일 같은 다른 요청은 계속 처리된다.
+ * 작업 스레드에는 요청 스레드의 MDC(requestId), SecurityContext, RequestAttributes를 넘겨준다.
+ */
+@Slf4j
+@Component
+public class BoardRequestExecutor {
+
+    public enum Mode { BLOCKING, ASYNC }
+
+    // 직접 응답을 쓰는 작업 (다운로드)
+    public interface ResponseTask {
+        void run() throws Exception;
+    }
+
+    private final Mode mode;
+
+    private final ExecutorService executor;
+
+    private final Semaphore permits;
+
+    private final long timeoutMillis;
+
+    public BoardRequestExecutor(@Value("${board.execution.mode:blocking}") String mode,
+                                @Value("${board.execution.threads:200}") int threads,
+                                @Value("${board.execution.max-in-flight:2000}") int maxInFlight,
+                                @Value("${board.execution.timeout-ms:30000}") long timeoutMillis) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase());
+        this.executor = this.mode == Mode.ASYNC ? createExecutor(threads) : null;
+        this.permits = new Semaphore(maxInFlight);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 핸들러 본문 실행
+     * @return blocking 모드는 task의 결과(ModelAndView, view 이름 등) 그대로, async 모드는 DeferredResult
+     *         (Spring MVC는 실제 반환 객체의 타입으로 처리 방식을 고르므로 핸들러 반환 타입은 Object로 둔다.)
+     */
+    public <T> Object execute(Callable<T> task) throws Exception {
+        if (mode == Mode.BLOCKING) {
+            return task.call();
+        }
+
+        DeferredResult<T> result = new DeferredResult<>(timeoutMillis);
+        result.onTimeout(() -> result.setErrorResult(
+                new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "요청 처리 시간이 초과되었습니다.")));
+        AtomicReference<T> value = new AtomicReference<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        acquire();
+        boolean submitted = submit(wrap(() -> {
+            try {
+                value.set(task.call());
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        }, () -> {
+            if (failure.get() != null) {
+                result.setErrorResult(failure.get());
+            } else {
+                result.setResult(value.get());
+            }
+        }));
+        if (submitted == false) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "요청을 처리할 수 없습니다.");
+        }
+        return result;
+    }
+
+    /**
+     * 응답을 직접 쓰는 핸들러 실행 (다운로드)
+     * async 모드에서는 서블릿 비동기를 시작하고 작업 스레드에서 응답을 끝까지 쓴 뒤 complete 한다.
+     */
+    public void executeAndComplete(HttpServletRequest request, HttpServletResponse response, ResponseTask task) throws Exception {
+        if (mode == Mode.BLOCKING) {
+            task.run();
+            return;
+        }
+
+        acquire();
+        AsyncContext asyncContext;
+        try {
+            asyncContext = request.startAsync(request, response);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        asyncContext.setTimeout(timeoutMillis);
+        boolean submitted = submit(wrap(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.warn("비동기 응답 처리 실패 : {}", request.getRequestURI(), e);
+                if (response.isCommitted() == false) {
+                    response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+            }
+        }, asyncContext::complete));
+        if (submitted == false) {
+            // 이미 비동기를 시작했으므로 예외 대신 직접 응답하고 끝낸다.
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            asyncContext.complete();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    // 워커 스레드를 붙잡지 않도록 기다리지 않고 바로 거절한다.
+    private void acquire() {
+        if (permits.tryAcquire() == false) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "요청이 많아 처리할 수 없습니다.");
+        }
+    }
+
+    /**
+     * 실행기에 작업을 넘긴다.
+     * 실행기가 거절하면(종료 중 등) wrap의 finally가 돌지 않으므로 여기서 permit을 돌려준다.
+     * @return 거절되면 false
+     */
+    private boolean submit(Runnable command) {
+        try {
+            executor.execute(command);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("게시판 작업 거절", e);
+            permits.release();
+            return false;
+        }
+    }
+
+    /**
+     * 요청 스레드의 컨텍스트를 작업 스레드로 넘기고, 작업 중 실행된 SQL 수를 요청 메트릭에 더한다.
+     * @param finish 메트릭 반영과 정리가 끝난 뒤 호출 (응답 완료 / DeferredResult 결과 설정)
+     */
+    private Runnable wrap(ResponseTask task, Runnable finish) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        return () -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            SecurityContextHolder.setContext(securityContext);
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            int statementsBefore = SqlStatementCounter.current();
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.warn("게시판 작업 실패", e);
+            } finally {
+                if (requestAttributes instanceof ServletRequestAttributes) {
+                    RequestMetricsFilter.addOffThreadStatements(((ServletRequestAttributes) requestAttributes).getRequest(),
+                            SqlStatementCounter.current() - statementsBefore);
+                }
+                RequestContextHolder.resetRequestAttributes();
+                SecurityContextHolder.clearContext();
+                MDC.clear();
+                permits.release();
+                finish.run();
+            }
+        };
+    }
+
+    private static ExecutorService createExecutor(int threads) {
+        try {
+            // Executors.newVirtualThreadPerTaskExecutor()는 JDK 21부터 존재하므로 리플렉션으로 찾는다.
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("게시판 요청을 가상 스레드에서 처리합니다.");
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            log.info("게시판 요청을 스레드 풀({})에서 처리합니다.", threads);
+            AtomicInteger sequence = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "board-request-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
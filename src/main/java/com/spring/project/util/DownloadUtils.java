@@ -0,0 +1,174 @@
+package com.spring.project.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 첨부파일 다운로드 응답을 스트리밍으로 내려주는 클래스
+ *
+ * 파일 전체를 byte[]로 읽지 않고 FileChannel.transferTo로 소켓에 바로 흘려보내기 때문에 다운로드 1건당 힙 사용량이 일정하다.
+ * Tomcat이 sendfile을 지원하면 전송 자체를 커넥터에 맡긴다. (커널 zero-copy, 워커 스레드도 바로 반환)
+ * Range / If-Range 부분 응답과 ETag / Last-Modified 기반 304 응답을 지원한다.
+ *
+ * board.download 타이머(disposition, status 태그)와 board.download.bytes 카운터를 남긴다.
+ * sendfile로 넘긴 경우 타이머는 커넥터에 넘기기까지의 시간만 잰다.
+ */
+@Component
+public class DownloadUtils {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // Tomcat sendfile 연동용 request attribute (org.apache.catalina.Globals 참고)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * @param file         내려줄 파일
+     * @param fileName     Content-Disposition에 들어갈 원본 파일명
+     * @param eTag         따옴표를 포함한 strong ETag
+     * @param lastModified 최종 수정 시각 (epoch millis)
+     */
+    public void sendFile(File file, String fileName, String eTag, long lastModified,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        send(file, "application/octet-stream",
+                "attachment; fileName=\"" + URLEncoder.encode(fileName, "UTF-8") + "\";",
+                eTag, lastModified, request, response);
+    }
+
+    /**
+     * 이미지처럼 브라우저가 바로 표시할 파일을 inline으로 내려준다. (다운로드 창을 띄우지 않음)
+     * @param contentType 파일의 실제 Content-Type (ex. image/jpeg)
+     */
+    public void sendInline(File file, String contentType, String eTag, long lastModified,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        send(file, contentType, "inline", eTag, lastModified, request, response);
+    }
+
+    private void send(File file, String contentType, String contentDisposition, String eTag, long lastModified,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            stream(file, contentType, contentDisposition, eTag, lastModified, request, response);
+        } finally {
+            sample.stop(meterRegistry.timer("board.download",
+                    "disposition", contentDisposition.startsWith("inline") ? "inline" : "attachment",
+                    "status", String.valueOf(response.getStatus())));
+        }
+    }
+
+    private void stream(File file, String contentType, String contentDisposition, String eTag, long lastModified,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (file.isFile() == false) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // If-None-Match / If-Modified-Since 검사, 변경이 없으면 304를 세팅하고 true 반환 (ETag, Last-Modified 헤더도 여기서 세팅)
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return;
+        }
+
+        long length = file.length();
+        long start = 0;
+        long end = length - 1;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && isRangeApplicable(request, eTag, lastModified)) {
+            List<HttpRange> ranges = parseRanges(range);
+            // 여러 구간(multipart/byteranges) 요청은 지원하지 않고 전체 파일을 200으로 내려준다.
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) { // 파일 크기를 벗어난 구간
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long contentLength = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(contentLength);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+
+        if ("HEAD".equals(request.getMethod()) || contentLength == 0) {
+            return;
+        }
+        meterRegistry.counter("board.download.bytes").increment(contentLength);
+
+        // 비동기 처리 중(BoardRequestExecutor async 모드)에는 sendfile이 적용되지 않으므로 직접 보낸다.
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED)) && request.isAsyncStarted() == false) {
+            // 응답 본문 전송을 Tomcat에 위임 (end는 exclusive)
+            request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = contentLength;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+        response.flushBuffer();
+    }
+
+    // If-Range 값이 현재 ETag(strong 비교) 또는 Last-Modified와 일치할 때만 Range 요청을 받아준다.
+    private boolean isRangeApplicable(HttpServletRequest request, String eTag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // 형식이 잘못된 Range 헤더는 무시하고 전체 파일을 내려준다.
+    private List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.spring.project.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 업로드 파일을 디스크에 쓰는 작업 전용 실행기
+ *
+ * 런타임이 지원하면(JDK 21+) 가상 스레드, 아니면 고정 크기 스레드 풀을 사용한다.
+ * 동시에 쓰고 있는 파일 수는 세마포어로 제한하고, 자리가 나지 않으면 일정 시간 기다린 뒤 503으로 거절한다. (backpressure)
+ */
+@Slf4j
+@Component
+public class FileUploadExecutor {
+
+    private final ExecutorService executor;
+
+    private final Semaphore permits;
+
+    private final long acquireTimeoutMillis;
+
+    public FileUploadExecutor(@Value("${file.upload.parallelism:4}") int parallelism,
+                              @Value("${file.upload.max-in-flight:32}") int maxInFlight,
+                              @Value("${file.upload.acquire-timeout-ms:3000}") long acquireTimeoutMillis) {
+        this.executor = createExecutor(parallelism);
+        this.permits = new Semaphore(maxInFlight);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public <T> Future<T> submit(Callable<T> task) throws InterruptedException {
+        if (permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS) == false) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "업로드 요청이 많아 처리할 수 없습니다.");
+        }
+        try {
+            return executor.submit(() -> {
+                try {
+                    return task.call();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private static ExecutorService createExecutor(int parallelism) {
+        try {
+            // Executors.newVirtualThreadPerTaskExecutor()는 JDK 21부터 존재하므로 리플렉션으로 찾는다.
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("파일 업로드에 가상 스레드를 사용합니다.");
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger sequence = new AtomicInteger();
+            return Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "file-upload-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
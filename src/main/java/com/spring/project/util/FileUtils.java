@@ -1,21 +1,80 @@
 package com.spring.project.util;
 
 import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.storage.AttachmentStore;
+import com.spring.project.storage.StoredAttachment;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.fileupload.FileCountLimitExceededException;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.fileupload.util.Streams;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.io.File;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Component
 public class FileUtils {
 
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    FileUploadExecutor fileUploadExecutor;
+
+    @Autowired
+    AttachmentStore attachmentStore;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // 스트리밍 업로드 제한, 파일 크기 / 요청 크기는 MultipartResolver(POST /boardwrite)와 같은 설정을 쓴다.
+    @Value("${spring.servlet.multipart.max-file-size:1MB}")
+    DataSize maxFileSize;
+
+    @Value("${spring.servlet.multipart.max-request-size:10MB}")
+    DataSize maxRequestSize;
+
+    @Value("${board.upload.max-files:20}")
+    int maxFiles;
+
+    @Value("${board.upload.max-fields:20}")
+    int maxFields;
+
+    /**
+     * 업로드된 파일들을 병렬로 저장소에 저장하고 BoardFileEntity 목록을 만든다.
+     *
+     * 1. 요청의 파일들을 검사하고
+     * 2. 각 파일을 FileUploadExecutor에 넘겨 동시에 저장한 뒤 (저장소가 스트리밍하면서 SHA-256을 계산)
+     * 3. 모든 파일이 저장된 다음에만 목록을 반환한다. (하나라도 실패하면 이미 저장한 파일까지 모두 되돌리고 예외를 던짐)
+     *
+     * 반환된 파일들은 저장소에 pin 되어 있으므로, 게시글 저장이 끝나면 반드시 completeUpload()를 호출해야 한다.
+     */
+    @Timed("board.upload")
     public List<BoardFileEntity> parseFileInfo(MultipartHttpServletRequest multipartHttpServletRequest) throws Exception {
         if (ObjectUtils.isEmpty(multipartHttpServletRequest)){
             return null;
@@ -23,50 +82,217 @@ public class FileUtils {
 
         List<BoardFileEntity> fileList = new ArrayList<>();
 
-        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyyMMdd");
-        ZonedDateTime current = ZonedDateTime.now();
-        String path = "images/"+current.format(format);
-        File file = new File(path);
-        if(file.exists() == false){
-            file.mkdirs();
-        }
-
         Iterator<String> iterator = multipartHttpServletRequest.getFileNames();
 
-        String newFileName, originalFileExtension, contentType;
+        String originalFileExtension;
 
+        List<MultipartFile> parts = new ArrayList<>();
+        List<String> extensions = new ArrayList<>();
         while (iterator.hasNext()){
             List<MultipartFile> list = multipartHttpServletRequest.getFiles(iterator.next());
             for(MultipartFile multipartFile : list) {
                 if (multipartFile.isEmpty() == false){
-                    contentType = multipartFile.getContentType();
-                    if (ObjectUtils.isEmpty(contentType)){
-                        break;
-                    }else {
-                        if (contentType.contains("images/jpeg")){
-                            originalFileExtension = ".jpg";
-                        } else if (contentType.contains("images/png")) {
-                            originalFileExtension = ".png";
-                        } else if (contentType.contains("images/gif")) {
-                            originalFileExtension = ".gif";
-                        }else {
-                            break;
-                        }
+                    // 브라우저가 보낸 Content-Type 대신 파일 앞부분(magic bytes)으로 이미지 종류를 판단한다.
+                    try (InputStream in = new BufferedInputStream(multipartFile.getInputStream(), ImageTypeSniffer.HEADER_LENGTH)) {
+                        originalFileExtension = ImageTypeSniffer.sniff(in);
+                    }
+                    if (originalFileExtension == null){
+                        continue;
                     }
 
-                    newFileName = Long.toString(System.nanoTime()) + originalFileExtension;
                     BoardFileEntity boardFile = new BoardFileEntity();
-                    boardFile.setFileSize(multipartFile.getSize());
                     boardFile.setOriginalFillName(multipartFile.getOriginalFilename());
-                    boardFile.setStoredFilePath(path + "/" + newFileName);
                     boardFile.setCreatorId("admin");
                     fileList.add(boardFile);
-
-                    file = new File(path + "/" + newFileName);
-                    multipartFile.transferTo(file);
+                    parts.add(multipartFile);
+                    extensions.add(originalFileExtension);
                 }
             }
         }
+
+        storeAll(parts, extensions, fileList);
         return fileList;
     }
+
+    /**
+     * multipart 요청 본문을 스트리밍으로 읽으면서 첨부파일을 바로 저장소에 저장한다. (POST /boardwrite/stream)
+     *
+     * MultipartResolver를 쓰면 서블릿 컨테이너가 파트를 임시 파일에 한 번 쓰고, 저장소가 그것을 다시 읽어 한 번 더 쓴다.
+     * 여기서는 요청 본문 -> 저장소 임시 파일(SHA-256 계산) -> rename 으로 디스크에 한 번만 쓴다.
+     *
+     * 1. Content-Length가 spring.servlet.multipart.max-request-size를 넘으면 본문을 읽기 전에 거절하고 (413)
+     * 2. 파트마다 max-file-size를 넘는 순간, 파일 수가 board.upload.max-files를 넘는 순간 읽기를 멈춘다. (413)
+     * 3. 파일 종류는 앞부분(magic bytes)으로 판단하고, 이미지가 아닌 파트는 저장하지 않고 건너뛴다.
+     *
+     * 파트는 본문에 들어온 순서대로만 읽을 수 있으므로 parseFileInfo()와 달리 파일을 하나씩 저장한다.
+     * 실패하면 이미 저장한 파일까지 되돌리고, 성공하면 parseFileInfo()와 같이 completeUpload()를 호출해야 한다.
+     */
+    @Timed("board.upload")
+    public StreamedUpload parseStreamingUpload(HttpServletRequest request) throws Exception {
+        if (ServletFileUpload.isMultipartContent(request) == false) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "multipart/form-data 요청이 아닙니다.");
+        }
+        ServletFileUpload upload = new ServletFileUpload(); // FileItemFactory 없이 쓰면 파트를 임시 파일에 두지 않는 스트리밍 방식
+        upload.setSizeMax(maxRequestSize.toBytes());
+        upload.setFileSizeMax(maxFileSize.toBytes());
+        upload.setFileCountMax(maxFiles + maxFields);
+        upload.setHeaderEncoding(StandardCharsets.UTF_8.name());
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        List<BoardFileEntity> fileList = new ArrayList<>();
+        try {
+            FileItemIterator iterator = upload.getItemIterator(request);
+            while (iterator.hasNext()) {
+                FileItemStream item = iterator.next();
+                try (InputStream in = item.openStream()) {
+                    if (item.isFormField()) {
+                        fields.putIfAbsent(item.getFieldName(), Streams.asString(in, StandardCharsets.UTF_8.name()));
+                        continue;
+                    }
+                    if (ObjectUtils.isEmpty(item.getName())) { // 파일을 고르지 않은 input
+                        continue;
+                    }
+                    BufferedInputStream buffered = new BufferedInputStream(in, STREAM_BUFFER_SIZE);
+                    String extension = ImageTypeSniffer.sniff(buffered);
+                    if (extension == null) {
+                        continue; // 나머지 내용은 다음 파트로 넘어갈 때 버려진다.
+                    }
+                    if (fileList.size() >= maxFiles) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "첨부파일은 " + maxFiles + "개까지 올릴 수 있습니다.");
+                    }
+                    BoardFileEntity boardFile = new BoardFileEntity();
+                    boardFile.setOriginalFillName(item.getName());
+                    boardFile.setCreatorId("admin");
+                    fileList.add(boardFile);
+                    StoredAttachment stored = attachmentStore.store(buffered, extension);
+                    boardFile.setStoredFilePath(stored.getStoredFilePath());
+                    boardFile.setChecksum(stored.getChecksum());
+                    boardFile.setFileSize(stored.getFileSize());
+                }
+            }
+        } catch (Exception e) {
+            completeUpload(fileList, false);
+            meterRegistry.counter("board.upload.files", "result", "failure").increment(fileList.size());
+            throw translateUploadFailure(e);
+        }
+
+        long bytes = 0;
+        for (BoardFileEntity boardFile : fileList) {
+            bytes += boardFile.getFileSize();
+        }
+        meterRegistry.counter("board.upload.files", "result", "success").increment(fileList.size());
+        meterRegistry.counter("board.upload.bytes").increment(bytes);
+        return new StreamedUpload(fields, fileList);
+    }
+
+    /**
+     * 게시글 저장이 끝난 뒤 호출
+     * @param saved 게시글(첨부파일 행)이 저장되었는지 여부, 저장되지 않았으면 참조가 없는 파일을 지운다.
+     */
+    public void completeUpload(Collection<BoardFileEntity> fileList, boolean saved) {
+        if (fileList == null) {
+            return;
+        }
+        List<String> paths = storedFilePaths(fileList);
+        attachmentStore.unpin(paths);
+        if (saved == false) {
+            attachmentStore.release(paths);
+        }
+    }
+
+    // 첨부파일 행을 지운 뒤 호출, 더 이상 참조되지 않는 파일을 저장소에서 지운다.
+    public void releaseFiles(Collection<String> storedFilePaths) {
+        attachmentStore.release(storedFilePaths);
+    }
+
+    private void storeAll(List<MultipartFile> parts, List<String> extensions, List<BoardFileEntity> fileList) throws Exception {
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        List<Future<?>> futures = new ArrayList<>();
+        Exception failure = null;
+        try {
+            for (int i = 0; i < parts.size(); i++) {
+                MultipartFile multipartFile = parts.get(i);
+                String extension = extensions.get(i);
+                BoardFileEntity boardFile = fileList.get(i);
+                futures.add(fileUploadExecutor.submit(() -> {
+                    try (InputStream in = new AbortableInputStream(multipartFile.getInputStream(), aborted)) {
+                        StoredAttachment stored = attachmentStore.store(in, extension);
+                        boardFile.setStoredFilePath(stored.getStoredFilePath());
+                        boardFile.setChecksum(stored.getChecksum());
+                        boardFile.setFileSize(stored.getFileSize());
+                    }
+                    return null;
+                }));
+            }
+        } catch (Exception e) { // 실행기 자리가 나지 않는 경우 (503)
+            failure = e;
+            aborted.set(true);
+        }
+
+        // 실패 여부와 상관없이 제출된 작업이 모두 끝날 때까지 기다린 뒤 정리해야 파일이 남지 않는다.
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                aborted.set(true);
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+
+        if (failure != null) {
+            completeUpload(fileList, false);
+            meterRegistry.counter("board.upload.files", "result", "failure").increment(fileList.size());
+            throw failure;
+        }
+
+        long bytes = 0;
+        for (BoardFileEntity boardFile : fileList) {
+            bytes += boardFile.getFileSize();
+        }
+        meterRegistry.counter("board.upload.files", "result", "success").increment(fileList.size());
+        meterRegistry.counter("board.upload.bytes").increment(bytes);
+    }
+
+    // 크기 / 개수 제한은 413, 깨진 multipart 본문은 400
+    private static Exception translateUploadFailure(Exception e) {
+        Throwable cause = e instanceof FileUploadBase.FileUploadIOException ? e.getCause() : e;
+        if (cause instanceof FileUploadBase.SizeException || cause instanceof FileCountLimitExceededException) {
+            return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, cause.getMessage());
+        }
+        if (cause instanceof FileUploadException) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, cause.getMessage());
+        }
+        return e;
+    }
+
+    private static List<String> storedFilePaths(Collection<BoardFileEntity> fileList) {
+        List<String> paths = new ArrayList<>();
+        for (BoardFileEntity boardFile : fileList) {
+            if (boardFile.getStoredFilePath() != null) { // 저장되기 전에 실패한 파일은 경로가 없다.
+                paths.add(boardFile.getStoredFilePath());
+            }
+        }
+        return paths;
+    }
+
+    // 다른 파일의 저장이 실패하면 읽기를 중단시키는 스트림
+    private static class AbortableInputStream extends FilterInputStream {
+
+        private final AtomicBoolean aborted;
+
+        AbortableInputStream(InputStream in, AtomicBoolean aborted) {
+            super(in);
+            this.aborted = aborted;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (aborted.get()) {
+                throw new IOException("업로드가 중단되었습니다.");
+            }
+            return super.read(b, off, len);
+        }
+    }
 }
@@ -0,0 +1,68 @@
+package com.spring.project.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 파일 앞부분(magic bytes)으로 이미지 종류를 판단한다.
+ *
+ * 브라우저가 보내는 Content-Type은 파일 확장자로 정해지거나 마음대로 바꿀 수 있으므로 믿지 않는다.
+ * 첨부파일로 받는 JPEG / PNG / GIF 만 알아보고, 그 외에는 null을 반환한다.
+ */
+public final class ImageTypeSniffer {
+
+    // 판단에 필요한 최대 바이트 수 (PNG 시그니처)
+    public static final int HEADER_LENGTH = 8;
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final byte[] GIF87A = {'G', 'I', 'F', '8', '7', 'a'};
+
+    private static final byte[] GIF89A = {'G', 'I', 'F', '8', '9', 'a'};
+
+    private ImageTypeSniffer() {
+    }
+
+    /**
+     * 스트림 앞부분을 읽어 확장자를 판단하고 읽은 위치를 되돌린다. (mark / reset 을 지원하는 스트림이어야 함)
+     * @return ".jpg", ".png", ".gif" 또는 null
+     */
+    public static String sniff(InputStream in) throws IOException {
+        byte[] header = new byte[HEADER_LENGTH];
+        in.mark(HEADER_LENGTH);
+        int length = 0;
+        int read;
+        while (length < HEADER_LENGTH && (read = in.read(header, length, HEADER_LENGTH - length)) != -1) {
+            length += read;
+        }
+        in.reset();
+        return extensionOf(header, length);
+    }
+
+    public static String extensionOf(byte[] header, int length) {
+        if (startsWith(header, length, JPEG)) {
+            return ".jpg";
+        }
+        if (startsWith(header, length, PNG)) {
+            return ".png";
+        }
+        if (startsWith(header, length, GIF87A) || startsWith(header, length, GIF89A)) {
+            return ".gif";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] header, int length, byte[] signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (header[i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.spring.project.util;
+
+import com.spring.project.entity.BoardFileEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+// 스트리밍으로 읽은 multipart 요청 (FileUtils.parseStreamingUpload)
+@Getter
+@AllArgsConstructor
+public class StreamedUpload {
+    private final Map<String, String> fields; // 일반 폼 필드 (이름 -> 값, 같은 이름은 처음 값)
+    private final List<BoardFileEntity> fileList; // 저장소에 저장(pin)된 첨부파일
+}
@@ -0,0 +1,39 @@
+-- 기준 스키마 : Flyway 도입 전 엔티티(Board, BoardFileEntity, UserInfo)로 Hibernate(ddl-auto=update)가 만들던 테이블과 같다.
+-- 이후에 추가된 컬럼 / 인덱스 / 테이블은 V2부터의 마이그레이션에 있다.
+-- 이미 운영 중인 DB에는 적용하지 않는다. (spring.flyway.baseline-on-migrate, baseline-version=1)
+
+CREATE TABLE t_jpa_board (
+    board_idx        INT          NOT NULL AUTO_INCREMENT,
+    content          VARCHAR(255),
+    created_datetime DATETIME(6),
+    creator_id       VARCHAR(255) NOT NULL,
+    hit_cnt          INT          NOT NULL,
+    title            VARCHAR(255),
+    update_datetime  DATETIME(6),
+    updater_id       VARCHAR(255),
+    PRIMARY KEY (board_idx)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE t_jpa_file (
+    idx                INT          NOT NULL AUTO_INCREMENT,
+    board_idx          INT,
+    created_datetime   DATETIME(6)  NOT NULL,
+    creator_id         VARCHAR(255) NOT NULL,
+    file_size          BIGINT       NOT NULL,
+    original_fill_name VARCHAR(255) NOT NULL,
+    stored_file_path   VARCHAR(255) NOT NULL,
+    update_date_time   DATETIME(6),
+    updator_id         VARCHAR(255),
+    PRIMARY KEY (idx),
+    CONSTRAINT fk_file_board FOREIGN KEY (board_idx) REFERENCES t_jpa_board (board_idx)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE user_info (
+    uid      BIGINT NOT NULL AUTO_INCREMENT,
+    auth     VARCHAR(255),
+    email    VARCHAR(255),
+    name     VARCHAR(255),
+    password VARCHAR(255),
+    PRIMARY KEY (uid),
+    CONSTRAINT uk_user_info_email UNIQUE (email)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,5 @@
+-- 게시글별 첨부파일 조회 (상세 / 삭제 / 요약 갱신의 COUNT, MIN 서브쿼리)
+-- 외래 키 때문에 InnoDB가 암묵적으로 만든 인덱스가 있으면 이 인덱스로 대체된다.
+CREATE INDEX IF NOT EXISTS idx_file_board_idx ON t_jpa_file (board_idx);
+
+-- 로그인 조회(user_info.email)는 V1 / Hibernate가 만든 UNIQUE 인덱스를 그대로 쓴다.
@@ -0,0 +1,13 @@
+-- 노드 간 캐시 무효화용 변경 로그 (ChangeLogEntry)
+-- ddl-auto=update로 이미 만들어진 DB도 있으므로 있으면 건너뛴다.
+CREATE TABLE IF NOT EXISTS t_jpa_change_log (
+    seq              BIGINT       NOT NULL AUTO_INCREMENT,
+    entity_type      VARCHAR(20)  NOT NULL,
+    entity_key       VARCHAR(255) NOT NULL,
+    origin_node      VARCHAR(64)  NOT NULL,
+    created_datetime DATETIME(6)  NOT NULL,
+    PRIMARY KEY (seq)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- 오래된 행 정리 (ChangeLogPoller.purge)
+CREATE INDEX IF NOT EXISTS idx_change_log_created ON t_jpa_change_log (created_datetime);
@@ -0,0 +1,9 @@
+-- 게시글 / 첨부파일 삭제 표시 (Board.deletedDatetime, BoardFileEntity.deletedDatetime)
+-- 표시된 행은 BoardPurger가 board.purge.grace-seconds 뒤에 지운다.
+-- ddl-auto=update로 이미 만들어진 DB도 있으므로 있으면 건너뛴다.
+ALTER TABLE t_jpa_board ADD COLUMN IF NOT EXISTS deleted_datetime DATETIME(6);
+ALTER TABLE t_jpa_file ADD COLUMN IF NOT EXISTS deleted_datetime DATETIME(6);
+
+-- 정리 대상 조회 (deleted_datetime < ?) / 남은 수 (board.purge.backlog)
+CREATE INDEX IF NOT EXISTS idx_board_deleted ON t_jpa_board (deleted_datetime);
+CREATE INDEX IF NOT EXISTS idx_file_deleted ON t_jpa_file (deleted_datetime);
@@ -0,0 +1,6 @@
+-- 첨부파일 SHA-256 (BoardFileEntity.checksum)
+-- ddl-auto=update로 이미 만들어진 DB도 있으므로 있으면 건너뛴다.
+ALTER TABLE t_jpa_file ADD COLUMN IF NOT EXISTS checksum VARCHAR(64);
+
+-- content-addressed 저장소의 참조 수 (AttachmentStore.release)
+CREATE INDEX IF NOT EXISTS idx_file_stored_path ON t_jpa_file (stored_file_path);
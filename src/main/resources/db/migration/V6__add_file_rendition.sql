@@ -0,0 +1,15 @@
+-- 첨부 이미지 축소본 (BoardFileRendition, ImageRenditionService)
+CREATE TABLE IF NOT EXISTS t_jpa_file_rendition (
+    idx              INT          NOT NULL AUTO_INCREMENT,
+    content_type     VARCHAR(50)  NOT NULL,
+    created_datetime DATETIME(6)  NOT NULL,
+    file_idx         INT          NOT NULL,
+    file_size        BIGINT       NOT NULL,
+    height           INT          NOT NULL,
+    size_name        VARCHAR(20)  NOT NULL,
+    stored_file_path VARCHAR(255) NOT NULL,
+    width            INT          NOT NULL,
+    PRIMARY KEY (idx),
+    CONSTRAINT uk_rendition_file_size UNIQUE (file_idx, size_name),
+    INDEX idx_rendition_stored_path (stored_file_path)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,11 @@
+-- 게시글 목록용 요약 (BoardSummary)
+-- 행은 기동 시 BoardSummaryWriter.backfill이 원본(t_jpa_board, t_jpa_file)에서 채운다.
+CREATE TABLE IF NOT EXISTS t_jpa_board_summary (
+    board_idx          INT    NOT NULL,
+    created_datetime   DATETIME(6),
+    file_count         BIGINT NOT NULL,
+    hit_cnt            INT    NOT NULL,
+    thumbnail_file_idx INT,
+    title              VARCHAR(255),
+    PRIMARY KEY (board_idx)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,3 @@
+-- 게시글 본문 (Board.content), V1의 VARCHAR(255)로는 긴 본문을 저장할 수 없다.
+-- ddl-auto=update는 이미 있는 컬럼의 타입을 바꾸지 않으므로 여기서 바꾼다. (이미 TEXT여도 그대로 다시 적용된다.)
+ALTER TABLE t_jpa_board MODIFY COLUMN content TEXT;
@@ -0,0 +1,35 @@
+package com.spring.project;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * faststart 프로파일(lazy-initialization) 기동 테스트
+ *
+ * 요청이 쓰지 않는 @Scheduled 빈은 처음 쓰일 때가 오지 않으므로 기동 중에 만들어져야 한다. (StartupConfig)
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:faststart;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+@ActiveProfiles("faststart")
+class FastStartApplicationTests {
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Test
+    void scheduledBeansAreCreatedAtStartup() {
+        // getBean으로 확인하면 그때 만들어지므로 이미 만들어진 싱글톤인지만 본다.
+        assertThat(context.getBeanFactory().containsSingleton("changeLogPoller")).isTrue();
+        assertThat(context.getBeanFactory().containsSingleton("boardPurger")).isTrue();
+    }
+}
@@ -0,0 +1,109 @@
+package com.spring.project.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 업로드 / 로그인 요청 수 제한 테스트
+ */
+class AdmissionControlFilterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 업로드 : 사용자당 분당 60(1초에 1개), IP 제한 없음, burst 2, 동시 1 / 로그인 : IP당 분당 60, 계정당 분당 6, burst 3, 동시 1
+        filter = new AdmissionControlFilter(meterRegistry, true, 1000, 60, 0, 2, 1, 6, 60, 3, 1);
+        filter.clock = now::get;
+    }
+
+    @Test
+    void loginBurstFromOneIpIsRejectedWithRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(login("user" + i).getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse rejected = login("user3");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(meterRegistry.counter("admission.rejected", "kind", "login", "reason", "rate").count()).isEqualTo(1);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1)); // 토큰 하나가 다시 생김
+        assertThat(login("user3").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void repeatedLoginForOneAccountIsRejectedAcrossIps() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(login("victim@example.com", "10.0.0." + i).getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse rejected = login("Victim@example.com", "10.0.0.9");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("10"); // 분당 6 = 10초에 1개
+    }
+
+    @Test
+    void uploadsOverConcurrencyLimitAreRejected() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain slowUpload = (request, response) -> {
+            // 첫 업로드를 처리하는 도중 두 번째 업로드가 들어온다.
+            MockHttpServletResponse second = new MockHttpServletResponse();
+            filter.doFilter(upload(), second, new MockFilterChain());
+            nested.set(second);
+        };
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(upload(), first, slowUpload);
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(nested.get().getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.counter("admission.rejected", "kind", "upload", "reason", "concurrency").count()).isEqualTo(1);
+
+        MockHttpServletResponse afterRelease = new MockHttpServletResponse();
+        filter.doFilter(upload(), afterRelease, new MockFilterChain());
+        assertThat(afterRelease.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void otherRequestsAreNotLimited() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("GET", "/board"), response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+    }
+
+    private MockHttpServletResponse login(String username) throws Exception {
+        return login(username, "127.0.0.1");
+    }
+
+    private MockHttpServletResponse login(String username, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setRemoteAddr(ip);
+        request.addParameter("username", username);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest upload() {
+        return new MockHttpServletRequest("POST", "/boardwrite");
+    }
+}
@@ -0,0 +1,198 @@
+package com.spring.project.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.project.changelog.ChangeLogWriter;
+import com.spring.project.dto.BoardBulkRow;
+import com.spring.project.pagecache.BoardPageCache;
+import com.spring.project.search.BoardSearchIndex;
+import com.spring.project.service.BoardSummaryWriter;
+import com.spring.project.storage.ContentAddressedAttachmentStore;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 게시글 대량 import / export 왕복 테스트 (H2)
+ *
+ * 배치마다 커밋되는 것을 보기 위해 테스트 트랜잭션 없이 실행하고, 끝나면 테이블을 비운다.
+ */
+@DataJpaTest(properties = {"board.bulk.batch-size=3", "board.bulk.fetch-size=2"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BoardBulkService.class, BoardSummaryWriter.class, ChangeLogWriter.class, ContentAddressedAttachmentStore.class,
+        JacksonAutoConfiguration.class})
+class BoardBulkServiceTest {
+
+    // 배치 3개(3 + 3 + 1행), 첨부파일은 게시글마다 0 ~ 2개라 첨부 INSERT도 배치 크기를 넘는다.
+    private static final int ROWS = 7;
+
+    @Autowired
+    BoardBulkService boardBulkService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    BoardSearchIndex boardSearchIndex;
+
+    @MockBean
+    BoardPageCache boardPageCache;
+
+    @AfterEach
+    void tearDown() {
+        for (String table : new String[]{"t_jpa_file", "t_jpa_board_summary", "t_jpa_change_log", "t_jpa_board"}) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    void importedRowsAreExportedWithTheirFiles() throws IOException {
+        List<BoardBulkRow> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(row(i, i % 3));
+        }
+
+        assertThat(boardBulkService.importNdjson(ndjson(rows))).isEqualTo(ROWS);
+        assertThat(count("t_jpa_board")).isEqualTo(ROWS);
+        assertThat(count("t_jpa_file")).isEqualTo(rows.stream().mapToInt(row -> row.getFiles().size()).sum());
+        assertThat(count("t_jpa_board_summary")).isEqualTo(ROWS);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(boardBulkService.exportNdjson(out)).isEqualTo(ROWS);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertThat(lines).hasSize(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            BoardBulkRow expected = rows.get(i);
+            BoardBulkRow exported = objectMapper.readValue(lines[i], BoardBulkRow.class);
+            assertThat(exported.getBoardIdx()).isNotNull();
+            assertThat(exported.getTitle()).isEqualTo(expected.getTitle());
+            assertThat(exported.getContent()).isEqualTo(expected.getContent());
+            assertThat(exported.getHitCnt()).isEqualTo(expected.getHitCnt());
+            assertThat(exported.getCreatorId()).isEqualTo(expected.getCreatorId());
+            assertThat(exported.getCreatedDatetime()).isEqualTo(expected.getCreatedDatetime());
+            // 첨부파일이 발급된 boardIdx에 맞게 붙었는지 (게시글 안의 순서는 보장하지 않음)
+            assertThat(files(exported)).as(expected.getTitle()).containsExactlyInAnyOrderElementsOf(files(expected));
+        }
+    }
+
+    @Test
+    void badNdjsonLineKeepsCommittedBatches() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            body.append("{\"title\":\"title").append(i).append("\"}\n");
+        }
+        body.append("{not json\n");
+
+        assertBadRequest(() -> boardBulkService.importNdjson(input(body.toString())), "3건 저장 후");
+        // 첫 배치(3행)만 커밋되고 네 번째 행은 모으던 중이라 저장되지 않는다.
+        assertThat(count("t_jpa_board")).isEqualTo(3);
+    }
+
+    @Test
+    void fileOutsideStoreRollsBackOnlyItsBatch() throws IOException {
+        List<BoardBulkRow> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(row(i, 1));
+        }
+        rows.get(3).getFiles().get(0).setStoredFilePath("/etc/passwd");
+
+        assertBadRequest(() -> boardBulkService.importNdjson(ndjson(rows)), "3건 저장 후");
+        assertThat(count("t_jpa_board")).isEqualTo(3);
+        assertThat(count("t_jpa_file")).isEqualTo(3);
+        assertThat(count("t_jpa_board_summary")).isEqualTo(3);
+    }
+
+    @Test
+    void csvImportStopsAtTheBadRecord() {
+        String csv = "title,content,hitCnt,createdDatetime\n" +
+                "a,\"쉼표, 줄바꿈\n\"\"따옴표\"\"\",1,2020-01-01T00:00:00\n" +
+                "b,,2,\n" +
+                "c,,3,\n" +
+                "d,,not-a-number,\n";
+
+        assertBadRequest(() -> boardBulkService.importCsv(input(csv)), "3건 저장 후");
+        assertThat(count("t_jpa_board")).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT content FROM t_jpa_board WHERE title = 'a'", String.class))
+                .isEqualTo("쉼표, 줄바꿈\n\"따옴표\"");
+    }
+
+    @Test
+    void csvWithoutHeaderIsBadRequest() {
+        assertBadRequest(() -> boardBulkService.importCsv(input("")), "CSV 헤더가 없습니다.");
+        assertThat(count("t_jpa_board")).isZero();
+    }
+
+    private BoardBulkRow row(int i, int fileCount) {
+        BoardBulkRow row = new BoardBulkRow();
+        row.setTitle("title" + i);
+        row.setContent("content " + i);
+        row.setHitCnt(i * 10);
+        row.setCreatorId("user" + i);
+        row.setCreatedDatetime(LocalDateTime.of(2020, 1, 1, 0, 0).plusMinutes(i));
+        for (int j = 0; j < fileCount; j++) {
+            BoardBulkRow.File file = new BoardBulkRow.File();
+            file.setOriginalFileName("file" + i + "-" + j + ".png");
+            file.setStoredFilePath("images/blobs/ab/cd/" + i + "-" + j + ".png");
+            file.setFileSize(1000L + i * 10 + j);
+            file.setChecksum("checksum" + i + "-" + j);
+            row.getFiles().add(file);
+        }
+        return row;
+    }
+
+    private InputStream ndjson(List<BoardBulkRow> rows) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (BoardBulkRow row : rows) {
+            body.append(objectMapper.writeValueAsString(row)).append('\n');
+        }
+        return input(body.toString());
+    }
+
+    private static InputStream input(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> files(BoardBulkRow row) {
+        return row.getFiles().stream()
+                .map(file -> file.getOriginalFileName() + "|" + file.getStoredFilePath() + "|" + file.getFileSize() + "|" + file.getChecksum())
+                .collect(Collectors.toList());
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private static void assertBadRequest(ThrowingCallable call, String reason) {
+        assertThatThrownBy(call)
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+                    assertThat(e.getReason()).startsWith(reason);
+                });
+    }
+}
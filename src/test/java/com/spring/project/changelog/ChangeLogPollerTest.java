@@ -0,0 +1,183 @@
+package com.spring.project.changelog;
+
+import com.spring.project.ProjectApplication;
+import com.spring.project.config.CacheConfig;
+import com.spring.project.dto.UserInfoDto;
+import com.spring.project.entity.Board;
+import com.spring.project.entity.UserInfo;
+import com.spring.project.pagecache.BoardPageCache;
+import com.spring.project.pagecache.PageVersion;
+import com.spring.project.search.BoardSearchIndex;
+import com.spring.project.security.AuthToken;
+import com.spring.project.security.AuthTokenService;
+import com.spring.project.service.BoardService;
+import com.spring.project.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 변경 로그로 노드 간 캐시 무효화 테스트
+ *
+ * 같은 H2 DB를 쓰는 애플리케이션 컨텍스트 두 개(nodeA, nodeB)를 한 JVM에서 띄우고,
+ * nodeA에서 바꾼 데이터가 nodeB의 poll() 후 nodeB 캐시에서 지워지는지 확인한다. (주기 poll은 꺼 두고 직접 호출)
+ */
+class ChangeLogPollerTest {
+
+    private static ConfigurableApplicationContext nodeA;
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+        poller(nodeA).poll(); // 첫 poll은 시작 위치(watermark)만 정한다.
+        poller(nodeB).poll();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void boardChangeOnOneNodeEvictsOtherNodesCaches() throws Exception {
+        Board board = new Board();
+        board.setTitle("before");
+        board.setContent("content");
+        nodeA.getBean(BoardService.class).saveBoard(board, null, 0);
+        int boardIdx = board.getBoardIdx();
+        assertThat(poller(nodeB).poll()).isEqualTo(1);
+
+        // nodeB가 게시글을 캐시해 둔 상태에서 nodeA가 제목을 바꾼다.
+        nodeB.getBean(BoardService.class).selectBoardDetail(boardIdx);
+        assertThat(boards(nodeB).get(boardIdx)).isNotNull();
+        PageVersion listVersion = nodeB.getBean(BoardPageCache.class).listVersion();
+
+        Board updated = nodeA.getBean(BoardService.class).selectBoardDetail(boardIdx);
+        updated.setTitle("after");
+        nodeA.getBean(BoardService.class).saveBoard(updated, null, 0);
+
+        assertThat(poller(nodeA).poll()).isZero(); // 자기 변경은 이미 반영했으므로 건너뛴다.
+        assertThat(poller(nodeB).poll()).isEqualTo(1);
+        assertThat(boards(nodeB).get(boardIdx)).isNull();
+        assertThat(nodeB.getBean(BoardPageCache.class).listVersion()).isNotEqualTo(listVersion);
+        assertThat(nodeB.getBean(BoardService.class).selectBoardDetail(boardIdx).getTitle()).isEqualTo("after");
+        assertThat(nodeB.getBean(BoardSearchIndex.class).search("after", 0, 10).getBoardIdxs()).contains(boardIdx);
+    }
+
+    @Test
+    void hitFlushEvictsBoardButKeepsListVersion() {
+        poller(nodeB).poll();
+        boards(nodeB).put(2001, "stale");
+        PageVersion listVersion = nodeB.getBean(BoardPageCache.class).listVersion();
+
+        appendHits(2001);
+
+        assertThat(poller(nodeB).poll()).isEqualTo(1);
+        assertThat(boards(nodeB).get(2001)).isNull();
+        assertThat(nodeB.getBean(BoardPageCache.class).listVersion()).isSameAs(listVersion);
+    }
+
+    @Test
+    void userSaveEvictsOtherNodesUserCache() {
+        Cache users = nodeB.getBean(CacheManager.class).getCache(CacheConfig.USERS);
+        users.put("changelog@test.com", "stale");
+
+        UserInfoDto user = new UserInfoDto();
+        user.setEmail("changelog@test.com");
+        user.setPassword("password");
+        user.setName("changelog");
+        user.setAuth("ROLE_USER");
+        nodeA.getBean(UserService.class).save(user);
+
+        assertThat(poller(nodeB).poll()).isEqualTo(1);
+        assertThat(users.get("changelog@test.com")).isNull();
+    }
+
+    @Test
+    void logoutOnOneNodeRevokesTheTokenOnOtherNodes() {
+        poller(nodeB).poll();
+        AuthTokenService tokensB = nodeB.getBean(AuthTokenService.class);
+        UserInfo user = UserInfo.builder().email("token@test.com").name("token").auth("ROLE_USER").build();
+        AuthToken token = tokensB.issue(user);
+        String value = tokensB.encode(token);
+        assertThat(tokensB.verify(value)).isNotNull();
+
+        nodeA.getBean(AuthTokenService.class).revoke(token);
+
+        assertThat(poller(nodeB).poll()).isEqualTo(1);
+        assertThat(tokensB.verify(value)).isNull();
+    }
+
+    @Test
+    void lateCommittedChangeBelowWatermarkIsStillApplied() throws Exception {
+        ChangeLogPoller poller = poller(nodeB);
+        poller.poll();
+        TransactionTemplate transactionTemplate = nodeA.getBean(TransactionTemplate.class);
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        // 먼저 seq를 발급받은 트랜잭션이 나중에 커밋되는 상황
+        Thread late = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            appendHits(1001);
+            inserted.countDown();
+            try {
+                commit.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        late.start();
+        assertThat(inserted.await(30, TimeUnit.SECONDS)).isTrue();
+        transactionTemplate.executeWithoutResult(status -> appendHits(1002));
+
+        assertThat(poller.poll()).isEqualTo(1); // 1002만 보이고 1001의 seq는 빈 번호로 기억
+
+        commit.countDown();
+        late.join();
+        assertThat(poller.poll()).isEqualTo(1); // 빈 번호를 다시 확인해서 반영
+        assertThat(poller.poll()).isZero();
+    }
+
+    private static void appendHits(int boardIdx) {
+        nodeA.getBean(ChangeLogWriter.class).append(ChangeType.BOARD_HITS, Collections.singletonList(boardIdx));
+    }
+
+    private static ChangeLogPoller poller(ConfigurableApplicationContext context) {
+        return context.getBean(ChangeLogPoller.class);
+    }
+
+    private static Cache boards(ConfigurableApplicationContext context) {
+        return context.getBean(CacheManager.class).getCache(CacheConfig.BOARDS);
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId) {
+        return new SpringApplicationBuilder(ProjectApplication.class)
+                .properties(
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.url=jdbc:h2:mem:changelog;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "server.port=0",
+                        "changelog.node-id=" + nodeId,
+                        "changelog.poll-interval-ms=3600000",
+                        "board.hit.flush-interval-ms=3600000",
+                        "logging.level.root=WARN")
+                .run();
+    }
+}
@@ -0,0 +1,326 @@
+package com.spring.project.loadtest;
+
+import com.spring.project.ProjectApplication;
+import com.spring.project.dto.BoardListDto;
+import com.spring.project.dto.UserInfoDto;
+import com.spring.project.entity.Board;
+import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.entity.BoardFileRendition;
+import com.spring.project.service.BoardService;
+import com.spring.project.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 실행 방식별 부하 비교 (./gradlew loadTest)
+ *
+ * 같은 애플리케이션을 board.execution.mode=blocking / async 로 각각 띄우고,
+ * 게시글 목록 조회에 STALL_MS 만큼 지연(느린 DB / 디스크 흉내)을 넣은 상태에서 CLIENTS 개의 동시 클라이언트로 GET /board 를 보낸다.
+ * Tomcat 워커 스레드는 TOMCAT_THREADS 개로 제한한다.
+ *
+ * blocking : 처리량이 워커 스레드 수 / 지연 시간에서 막힌다.
+ * async    : 워커 스레드가 지연 동안 묶이지 않으므로 동시 클라이언트 수만큼 처리량이 늘어난다.
+ *
+ * 결과(처리량, p50 / p99, 유지된 동시 처리 수)는 build/reports/loadtest/execution-mode.json 에 남긴다.
+ */
+@Tag("load")
+class ExecutionModeLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionModeLoadTest.class);
+
+    private static final int TOMCAT_THREADS = 16;
+
+    private static final int CLIENTS = 128;
+
+    private static final long STALL_MS = 100;
+
+    private static final long WARMUP_MS = 2_000;
+
+    private static final long DURATION_MS = 10_000;
+
+    private static final String EMAIL = "load@test.com";
+
+    private static final String PASSWORD = "load-password";
+
+    @Test
+    void asyncModeSustainsMoreConcurrencyThanThreadPerRequest() throws Exception {
+        Result blocking = run("blocking");
+        Result async = run("async");
+
+        String report = "{\n  \"clients\": " + CLIENTS + ", \"tomcatThreads\": " + TOMCAT_THREADS + ", \"stallMs\": " + STALL_MS + ",\n"
+                + "  \"blocking\": " + blocking.toJson() + ",\n"
+                + "  \"async\": " + async.toJson() + "\n}\n";
+        Path reportFile = Paths.get("build", "reports", "loadtest", "execution-mode.json");
+        Files.createDirectories(reportFile.getParent());
+        Files.write(reportFile, report.getBytes(StandardCharsets.UTF_8));
+        log.info("{} :\n{}", reportFile.toAbsolutePath(), report);
+
+        assertThat(async.errors).isZero();
+        assertThat(async.throughput()).isGreaterThan(blocking.throughput() * 2);
+    }
+
+    private Result run(String mode) throws Exception {
+        try (ConfigurableApplicationContext context = start(mode)) {
+            UserInfoDto user = new UserInfoDto();
+            user.setEmail(EMAIL);
+            user.setPassword(PASSWORD);
+            user.setName("load");
+            user.setAuth("ROLE_USER");
+            context.getBean(UserService.class).save(user);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            String session = login(baseUrl);
+
+            drive(baseUrl, session, WARMUP_MS);
+            return drive(baseUrl, session, DURATION_MS);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        return new SpringApplicationBuilder(ProjectApplication.class, StallConfig.class)
+                .properties(
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "board.execution.mode=" + mode,
+                        "board.execution.threads=" + CLIENTS * 2,
+                        "loadtest.stall-ms=" + STALL_MS,
+                        "board.page-cache.enabled=false", // 매 요청이 실제로 목록 조회를 거치도록 페이지 캐시는 끈다.
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    // 폼 로그인 후 세션 쿠키 반환 (로그인 페이지의 _csrf 값을 같이 보낸다)
+    private static String login(String baseUrl) throws IOException {
+        HttpURLConnection page = (HttpURLConnection) new URL(baseUrl + "/login").openConnection();
+        String html = read(page.getInputStream());
+        String cookie = sessionCookie(page);
+        Matcher csrf = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"").matcher(html);
+        assertThat(csrf.find()).isTrue();
+
+        HttpURLConnection login = (HttpURLConnection) new URL(baseUrl + "/login").openConnection();
+        login.setInstanceFollowRedirects(false);
+        login.setRequestMethod("POST");
+        login.setDoOutput(true);
+        login.setRequestProperty("Cookie", cookie);
+        login.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        String form = "username=" + URLEncoder.encode(EMAIL, "UTF-8")
+                + "&password=" + URLEncoder.encode(PASSWORD, "UTF-8")
+                + "&_csrf=" + URLEncoder.encode(csrf.group(1), "UTF-8");
+        try (OutputStream out = login.getOutputStream()) {
+            out.write(form.getBytes(StandardCharsets.UTF_8));
+        }
+        assertThat(login.getResponseCode()).isEqualTo(302);
+        assertThat(login.getHeaderField("Location")).doesNotContain("error");
+        return sessionCookie(login); // 로그인하면 세션 ID가 바뀐다.
+    }
+
+    private static String sessionCookie(HttpURLConnection connection) {
+        for (String header : connection.getHeaderFields().getOrDefault("Set-Cookie", Collections.emptyList())) {
+            if (header.startsWith("JSESSIONID=")) {
+                return header.substring(0, header.indexOf(';'));
+            }
+        }
+        throw new IllegalStateException("세션 쿠키가 없습니다.");
+    }
+
+    private static Result drive(String baseUrl, String session, long durationMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + durationMillis;
+        List<List<Long>> latencies = new ArrayList<>();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            List<Long> mine = new ArrayList<>();
+            latencies.add(mine);
+            Thread client = new Thread(() -> {
+                try {
+                    while (System.currentTimeMillis() < deadline) {
+                        long started = System.nanoTime();
+                        try {
+                            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/board").openConnection();
+                            connection.setRequestProperty("Cookie", session);
+                            int status = connection.getResponseCode();
+                            read(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+                            if (status != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        mine.add(System.nanoTime() - started);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            client.setDaemon(true);
+            client.start();
+        }
+        done.await();
+
+        List<Long> all = new ArrayList<>();
+        for (List<Long> mine : latencies) {
+            all.addAll(mine);
+        }
+        Collections.sort(all);
+        return new Result(all, errors.get(), durationMillis);
+    }
+
+    private static String read(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (InputStream stream = in) {
+            byte[] buffer = new byte[8192];
+            StringBuilder sb = new StringBuilder();
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                sb.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
+            }
+            return sb.toString();
+        }
+    }
+
+    private static class Result {
+
+        private final List<Long> sortedNanos;
+
+        private final long errors;
+
+        private final long durationMillis;
+
+        Result(List<Long> sortedNanos, long errors, long durationMillis) {
+            this.sortedNanos = sortedNanos;
+            this.errors = errors;
+            this.durationMillis = durationMillis;
+        }
+
+        double throughput() {
+            return sortedNanos.size() * 1000.0 / durationMillis;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedNanos.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+            return sortedNanos.get(Math.max(index, 0)) / 1_000_000.0;
+        }
+
+        double meanMillis() {
+            long sum = 0;
+            for (long nanos : sortedNanos) {
+                sum += nanos;
+            }
+            return sortedNanos.isEmpty() ? 0 : sum / 1_000_000.0 / sortedNanos.size();
+        }
+
+        String toJson() {
+            // 유지된 동시 처리 수 = 처리량 x 평균 응답 시간 (Little's law)
+            return String.format(Locale.ROOT,
+                    "{\"requests\": %d, \"errors\": %d, \"throughput\": %.1f, \"p50Ms\": %.1f, \"p99Ms\": %.1f, \"sustainedConcurrency\": %.1f}",
+                    sortedNanos.size(), errors, throughput(), percentileMillis(0.50), percentileMillis(0.99),
+                    throughput() * meanMillis() / 1000.0);
+        }
+    }
+
+    /**
+     * 게시글 목록 / 상세 조회에 지연을 넣는 BoardService (느린 DB / 디스크 흉내)
+     * 컴포넌트 스캔에 잡히지 않도록 @Configuration 없이 SpringApplicationBuilder의 source로만 등록한다.
+     */
+    static class StallConfig {
+
+        @Bean
+        @Primary
+        BoardService stalledBoardService(@Qualifier("boardServiceImpl") BoardService delegate,
+                                         @Value("${loadtest.stall-ms:0}") long stallMillis) {
+            return new BoardService() {
+                @Override
+                public List<BoardListDto> selectBoardList(int lastBoardIdx, int size) throws Exception {
+                    Thread.sleep(stallMillis);
+                    return delegate.selectBoardList(lastBoardIdx, size);
+                }
+
+                @Override
+                public List<BoardListDto> searchBoardList(String query, int page, int size) throws Exception {
+                    return delegate.searchBoardList(query, page, size);
+                }
+
+                @Override
+                public void saveBoard(Board board, MultipartHttpServletRequest multipartHttpServletRequest, int hitCnt) throws Exception {
+                    delegate.saveBoard(board, multipartHttpServletRequest, hitCnt);
+                }
+
+                @Override
+                public void saveBoardStreaming(HttpServletRequest request) throws Exception {
+                    delegate.saveBoardStreaming(request);
+                }
+
+                @Override
+                public Board selectBoardDetail(int boardIdx) throws Exception {
+                    Thread.sleep(stallMillis);
+                    return delegate.selectBoardDetail(boardIdx);
+                }
+
+                @Override
+                public void deleteBoard(int boardIdx) throws Exception {
+                    delegate.deleteBoard(boardIdx);
+                }
+
+                @Override
+                public BoardFileEntity selectBoardFileInformation(int idx, int boardIdx) throws Exception {
+                    return delegate.selectBoardFileInformation(idx, boardIdx);
+                }
+
+                @Override
+                public BoardFileRendition selectBoardFileRendition(int fileIdx, String sizeName) throws Exception {
+                    return delegate.selectBoardFileRendition(fileIdx, sizeName);
+                }
+
+                @Override
+                public void deleteBoardFile(int idx, int boardIdx) throws Exception {
+                    delegate.deleteBoardFile(idx, boardIdx);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package com.spring.project.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.spring.project.ProjectApplication;
+import com.spring.project.dto.UserInfoDto;
+import com.spring.project.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 목록 / 상세 / 작성(첨부 업로드) / 첨부 다운로드 혼합 부하 + 지연 시간 SLO 검사 (./gradlew loadTest)
+ *
+ * H2(MariaDB 모드) 위에 애플리케이션을 띄우고 SEED_POSTS 개의 게시글(첨부 포함)을 만든 뒤,
+ * CLIENTS 개의 동시 클라이언트가 MIX 비율대로 요청을 보낸다.
+ * 게시글 본문은 200 ~ 4000자, 첨부는 0 ~ 3개의 PNG(약 60kb ~ 600kb)를 쓴다.
+ *
+ * 결과(요청 종류별 처리량, p50 / p99, 서버 스레드의 요청당 할당량)는 build/reports/loadtest/mixed-traffic.json 에 남기고,
+ * 저장된 기준값(loadtest.baseline-file)이 있으면 비교해서 아래를 넘으면 실패한다.
+ *  - 요청 종류별 p99 > 기준 p99 x P99_TOLERANCE + P99_SLACK_MS
+ *  - 요청당 할당량 > 기준값 x ALLOCATION_TOLERANCE
+ * 할당량은 처리량이 늘면 같이 늘어나는 초당 값 대신 요청당 값으로 비교한다. (초당 값은 보고서에만 남김)
+ *
+ * 기준값 파일이 아직 없으면 보고서만 남기고 비교는 건너뛴다. (skipped로 표시되어 통과로 보이지 않는다.)
+ * 처음 만들거나 의도한 변경으로 기준값을 바꿀 때는 기준 장비에서 ./gradlew loadTest -PupdateLoadTestBaseline 으로 저장하고 커밋한다.
+ */
+@Tag("load")
+class MixedTrafficLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MixedTrafficLoadTest.class);
+
+    private static final int CLIENTS = 32;
+
+    private static final int SEED_POSTS = 100;
+
+    private static final long WARMUP_MS = 5_000;
+
+    private static final long DURATION_MS = 20_000;
+
+    private static final double P99_TOLERANCE = 1.5;
+
+    private static final double P99_SLACK_MS = 10;
+
+    private static final double ALLOCATION_TOLERANCE = 1.25;
+
+    private static final String EMAIL = "mixed@test.com";
+
+    private static final String PASSWORD = "mixed-password";
+
+    private static final String LIST = "list";
+
+    private static final String DETAIL = "detail";
+
+    private static final String WRITE = "write";
+
+    private static final String DOWNLOAD = "download";
+
+    // 요청 종류별 비율 (%) : 읽기 위주 (글쓰기의 첨부 개수는 Client.write() 참고)
+    private static final Map<String, Integer> MIX = new LinkedHashMap<>();
+
+    static {
+        MIX.put(LIST, 45);
+        MIX.put(DETAIL, 30);
+        MIX.put(DOWNLOAD, 17);
+        MIX.put(WRITE, 8);
+    }
+
+    // 첨부 PNG 크기 (가로 x 세로, 잡음 이미지라 압축이 거의 안 됨 => 약 3 x 가로 x 세로 바이트)
+    private static final int[][] IMAGE_SIZES = {{150, 130}, {260, 200}, {340, 260}, {460, 420}};
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Test
+    void mixedTrafficStaysWithinBaseline() throws Exception {
+        Path work = Paths.get("build", "loadtest", "mixed").toAbsolutePath();
+        Files.createDirectories(work);
+        List<byte[]> images = images();
+
+        Map<String, Object> report;
+        try (ConfigurableApplicationContext context = start(work)) {
+            UserInfoDto user = new UserInfoDto();
+            user.setEmail(EMAIL);
+            user.setPassword(PASSWORD);
+            user.setName("mixed");
+            user.setAuth("ROLE_USER");
+            context.getBean(UserService.class).save(user);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Client client = Client.login("http://localhost:" + port);
+
+            Random random = new Random(42);
+            for (int i = 0; i < SEED_POSTS; i++) {
+                assertThat(client.write(random, images)).isEqualTo(302);
+            }
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            Targets targets = new Targets(
+                    jdbcTemplate.queryForList("select board_idx from t_jpa_board", Integer.class),
+                    jdbcTemplate.query("select idx, board_idx from t_jpa_file",
+                            (rs, rowNum) -> new int[]{rs.getInt("idx"), rs.getInt("board_idx")}));
+            assertThat(targets.files).isNotEmpty();
+
+            drive(client, targets, images, WARMUP_MS);
+            report = drive(client, targets, images, DURATION_MS);
+        }
+
+        Path reportFile = Paths.get("build", "reports", "loadtest", "mixed-traffic.json");
+        Files.createDirectories(reportFile.getParent());
+        OBJECT_MAPPER.writeValue(reportFile.toFile(), report);
+        log.info("{} :\n{}", reportFile.toAbsolutePath(), OBJECT_MAPPER.writeValueAsString(report));
+
+        for (String operation : MIX.keySet()) {
+            assertThat(((Result) report.get(operation)).errors).as(operation + " 오류 수").isZero();
+        }
+        checkBaseline(OBJECT_MAPPER.valueToTree(report));
+    }
+
+    private static ConfigurableApplicationContext start(Path work) {
+        return new SpringApplicationBuilder(ProjectApplication.class)
+                .properties(
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.url=jdbc:h2:mem:load-mixed;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "server.port=0",
+                        "file.storage.root=" + work.resolve("blobs-" + System.currentTimeMillis()),
+                        "admission.enabled=false", // 한 사용자 / 한 IP에서 보내는 부하라 업로드 제한은 끈다.
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    // 준비 구간 / 측정 구간 : CLIENTS 개의 스레드가 끝날 때까지 MIX 비율대로 요청을 보낸다.
+    private static Map<String, Object> drive(Client client, Targets targets, List<byte[]> images,
+                                             long durationMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + durationMillis;
+        List<Map<String, List<Long>>> latencies = new ArrayList<>();
+        Map<String, AtomicLong> errors = new HashMap<>();
+        for (String operation : MIX.keySet()) {
+            errors.put(operation, new AtomicLong());
+        }
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        Set<Long> clientThreadIds = new HashSet<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            Map<String, List<Long>> mine = new HashMap<>();
+            for (String operation : MIX.keySet()) {
+                mine.put(operation, new ArrayList<>());
+            }
+            latencies.add(mine);
+            Thread thread = new Thread(() -> {
+                try {
+                    Random random = ThreadLocalRandom.current();
+                    while (System.currentTimeMillis() < deadline) {
+                        String operation = pick(random.nextInt(100));
+                        long started = System.nanoTime();
+                        try {
+                            if (client.send(operation, random, targets, images) == false) {
+                                errors.get(operation).incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors.get(operation).incrementAndGet();
+                            continue;
+                        }
+                        mine.get(operation).add(System.nanoTime() - started);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            thread.setDaemon(true);
+            clientThreadIds.add(thread.getId());
+            threads.add(thread);
+        }
+
+        Map<Long, Long> allocatedBefore = allocatedBytes(clientThreadIds);
+        threads.forEach(Thread::start);
+        done.await();
+        Map<Long, Long> allocatedAfter = allocatedBytes(clientThreadIds);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", CLIENTS);
+        report.put("seedPosts", SEED_POSTS);
+        report.put("durationMs", durationMillis);
+        long requests = 0;
+        for (String operation : MIX.keySet()) {
+            List<Long> all = new ArrayList<>();
+            for (Map<String, List<Long>> mine : latencies) {
+                all.addAll(mine.get(operation));
+            }
+            Collections.sort(all);
+            Result result = new Result(all, errors.get(operation).get(), durationMillis);
+            report.put(operation, result);
+            requests += all.size();
+        }
+
+        // 서버 쪽 할당량 = 측정 구간 동안 클라이언트 스레드를 뺀 모든 스레드(Tomcat 워커, 업로드 / 축소본 실행기 등)가 할당한 바이트
+        // 구간 중에 끝난 스레드의 할당량은 빠지므로 실제보다 약간 작게 나올 수 있다.
+        long allocated = 0;
+        for (Map.Entry<Long, Long> entry : allocatedAfter.entrySet()) {
+            allocated += entry.getValue() - allocatedBefore.getOrDefault(entry.getKey(), 0L);
+        }
+        Map<String, Object> allocation = new LinkedHashMap<>();
+        allocation.put("mbPerSecond", round(allocated / 1024.0 / 1024.0 * 1000.0 / durationMillis));
+        allocation.put("bytesPerRequest", requests == 0 ? 0 : allocated / requests);
+        report.put("allocation", allocation);
+        return report;
+    }
+
+    private static String pick(int percent) {
+        int sum = 0;
+        for (Map.Entry<String, Integer> entry : MIX.entrySet()) {
+            sum += entry.getValue();
+            if (percent < sum) {
+                return entry.getKey();
+            }
+        }
+        return LIST;
+    }
+
+    private static Map<Long, Long> allocatedBytes(Set<Long> excludedThreadIds) {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threadMXBean.getAllThreadIds();
+        long[] bytes = threadMXBean.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0 && excludedThreadIds.contains(ids[i]) == false) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+
+    private static void checkBaseline(JsonNode current) throws IOException {
+        Path baselineFile = Paths.get(System.getProperty("loadtest.baseline-file",
+                "src/test/resources/loadtest/mixed-traffic-baseline.json"));
+        if (Boolean.getBoolean("loadtest.update-baseline")) {
+            Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+            OBJECT_MAPPER.writeValue(baselineFile.toFile(), current);
+            log.info("기준값 저장 : {}", baselineFile.toAbsolutePath());
+            return;
+        }
+        assumeTrue(Files.exists(baselineFile),
+                "기준값 파일이 없어 비교를 건너뜁니다. ./gradlew loadTest -PupdateLoadTestBaseline 으로 만들고 커밋하세요.");
+
+        JsonNode baseline = OBJECT_MAPPER.readTree(baselineFile.toFile());
+        List<String> regressions = new ArrayList<>();
+        for (String operation : MIX.keySet()) {
+            double baselineP99 = baseline.path(operation).path("p99Ms").asDouble();
+            double p99 = current.path(operation).path("p99Ms").asDouble();
+            double limit = baselineP99 * P99_TOLERANCE + P99_SLACK_MS;
+            if (p99 > limit) {
+                regressions.add(String.format("%s p99 %.1fms > %.1fms (기준 %.1fms)", operation, p99, limit, baselineP99));
+            }
+        }
+        long baselineBytes = baseline.path("allocation").path("bytesPerRequest").asLong();
+        long bytes = current.path("allocation").path("bytesPerRequest").asLong();
+        if (baselineBytes > 0 && bytes > baselineBytes * ALLOCATION_TOLERANCE) {
+            regressions.add(String.format("요청당 할당량 %d bytes > %.0f bytes (기준 %d bytes)",
+                    bytes, baselineBytes * ALLOCATION_TOLERANCE, baselineBytes));
+        }
+        assertThat(regressions).as("기준값(" + baselineFile + ") 대비 성능 저하").isEmpty();
+    }
+
+    // 잡음 PNG (크기별 하나씩), 업로드할 때마다 뒤에 임의의 바이트를 붙여서 저장소의 중복 제거에 걸리지 않게 한다.
+    private static List<byte[]> images() throws IOException {
+        Random random = new Random(7);
+        List<byte[]> images = new ArrayList<>();
+        for (int[] size : IMAGE_SIZES) {
+            BufferedImage image = new BufferedImage(size[0], size[1], BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < size[1]; y++) {
+                for (int x = 0; x < size[0]; x++) {
+                    image.setRGB(x, y, random.nextInt(0x1000000));
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            images.add(out.toByteArray());
+        }
+        return images;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static class Targets {
+
+        private final List<Integer> boardIdxs;
+
+        private final List<int[]> files; // {idx, boardIdx}
+
+        Targets(List<Integer> boardIdxs, List<int[]> files) {
+            this.boardIdxs = boardIdxs;
+            this.files = files;
+        }
+    }
+
+    /**
+     * 로그인한 세션 하나로 요청을 보내는 클라이언트 (HttpURLConnection은 스레드마다 따로 열리므로 여러 스레드가 같이 써도 된다)
+     */
+    private static class Client {
+
+        private static final String CONTENT_WORDS = "게시판 부하 테스트 본문입니다. The quick brown fox jumps over the lazy dog. ";
+
+        private final String baseUrl;
+
+        private final String session;
+
+        private final String csrfToken;
+
+        private Client(String baseUrl, String session, String csrfToken) {
+            this.baseUrl = baseUrl;
+            this.session = session;
+            this.csrfToken = csrfToken;
+        }
+
+        // 폼 로그인 후 세션 쿠키와 로그인 후 다시 만들어진 CSRF 토큰(글쓰기 화면의 _csrf 값)을 가진 클라이언트 반환
+        static Client login(String baseUrl) throws IOException {
+            HttpURLConnection page = (HttpURLConnection) new URL(baseUrl + "/login").openConnection();
+            String html = read(page.getInputStream());
+            String cookie = sessionCookie(page);
+
+            HttpURLConnection login = (HttpURLConnection) new URL(baseUrl + "/login").openConnection();
+            login.setInstanceFollowRedirects(false);
+            login.setRequestMethod("POST");
+            login.setDoOutput(true);
+            login.setRequestProperty("Cookie", cookie);
+            login.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+            String form = "username=" + URLEncoder.encode(EMAIL, "UTF-8")
+                    + "&password=" + URLEncoder.encode(PASSWORD, "UTF-8")
+                    + "&_csrf=" + URLEncoder.encode(csrfToken(html), "UTF-8");
+            try (OutputStream out = login.getOutputStream()) {
+                out.write(form.getBytes(StandardCharsets.UTF_8));
+            }
+            assertThat(login.getResponseCode()).isEqualTo(302);
+            assertThat(login.getHeaderField("Location")).doesNotContain("error");
+            String session = sessionCookie(login); // 로그인하면 세션 ID가 바뀐다.
+
+            HttpURLConnection write = (HttpURLConnection) new URL(baseUrl + "/write").openConnection();
+            write.setRequestProperty("Cookie", session);
+            return new Client(baseUrl, session, csrfToken(read(write.getInputStream())));
+        }
+
+        boolean send(String operation, Random random, Targets targets, List<byte[]> images) throws IOException {
+            switch (operation) {
+                case LIST:
+                    return get("/board") == 200;
+                case DETAIL:
+                    return get("/board/" + targets.boardIdxs.get(random.nextInt(targets.boardIdxs.size()))) == 200;
+                case DOWNLOAD:
+                    int[] file = targets.files.get(random.nextInt(targets.files.size()));
+                    // 목록 / 상세 화면처럼 축소본을 더 자주 받는다.
+                    int kind = random.nextInt(4);
+                    String size = kind == 0 ? "" : kind == 1 ? "&size=medium" : "&size=thumb";
+                    int status = get("/board/file?idx=" + file[0] + "&boardIdx=" + file[1] + size);
+                    // 썸네일이 아직 만들어지지 않았으면 404
+                    return status == 200 || (kind > 1 && status == 404);
+                default:
+                    return write(random, images) == 302;
+            }
+        }
+
+        int get(String path) throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            connection.setInstanceFollowRedirects(false);
+            connection.setRequestProperty("Cookie", session);
+            int status = connection.getResponseCode();
+            drain(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+            return status;
+        }
+
+        // multipart 글쓰기 : 본문 200 ~ 4000자, 첨부 없음 40% / 1개 40% / 3개 20%
+        int write(Random random, List<byte[]> images) throws IOException {
+            String boundary = "----load" + Long.toHexString(random.nextLong());
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            field(body, boundary, "title", "부하 테스트 " + random.nextInt(1_000_000));
+            StringBuilder content = new StringBuilder();
+            int length = 200 + random.nextInt(3801);
+            while (content.length() < length) {
+                content.append(CONTENT_WORDS);
+            }
+            field(body, boundary, "content", content.substring(0, length));
+            int fileCount = Arrays.asList(0, 0, 1, 1, 3).get(random.nextInt(5));
+            for (int i = 0; i < fileCount; i++) {
+                byte[] image = images.get(random.nextInt(images.size()));
+                byte[] salt = new byte[8];
+                random.nextBytes(salt);
+                part(body, boundary, "Content-Disposition: form-data; name=\"files\"; filename=\"photo" + i + ".png\"\r\n"
+                        + "Content-Type: image/png\r\n");
+                body.write(image);
+                body.write(salt);
+                body.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+            }
+            body.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/boardwrite").openConnection();
+            connection.setInstanceFollowRedirects(false);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.size());
+            connection.setRequestProperty("Cookie", session);
+            connection.setRequestProperty("X-CSRF-TOKEN", csrfToken);
+            connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+            try (OutputStream out = connection.getOutputStream()) {
+                body.writeTo(out);
+            }
+            int status = connection.getResponseCode();
+            drain(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+            return status;
+        }
+
+        private static void field(ByteArrayOutputStream body, String boundary, String name, String value) throws IOException {
+            part(body, boundary, "Content-Disposition: form-data; name=\"" + name + "\"\r\n");
+            body.write(value.getBytes(StandardCharsets.UTF_8));
+            body.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private static void part(ByteArrayOutputStream body, String boundary, String headers) throws IOException {
+            body.write(("--" + boundary + "\r\n" + headers + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static String csrfToken(String html) {
+            Matcher csrf = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"").matcher(html);
+            assertThat(csrf.find()).isTrue();
+            return csrf.group(1);
+        }
+
+        private static String sessionCookie(HttpURLConnection connection) {
+            for (String header : connection.getHeaderFields().getOrDefault("Set-Cookie", Collections.emptyList())) {
+                if (header.startsWith("JSESSIONID=")) {
+                    return header.substring(0, header.indexOf(';'));
+                }
+            }
+            throw new IllegalStateException("세션 쿠키가 없습니다.");
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+        try (InputStream stream = in) {
+            byte[] buffer = new byte[8192];
+            while (stream.read(buffer) != -1) {
+                // 응답 본문은 읽고 버린다.
+            }
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 요청 종류 하나의 측정 결과 (Jackson으로 보고서 / 기준값 JSON에 그대로 쓴다)
+     */
+    static class Result {
+
+        private final List<Long> sortedNanos;
+
+        private final long errors;
+
+        private final long durationMillis;
+
+        Result(List<Long> sortedNanos, long errors, long durationMillis) {
+            this.sortedNanos = sortedNanos;
+            this.errors = errors;
+            this.durationMillis = durationMillis;
+        }
+
+        public int getRequests() {
+            return sortedNanos.size();
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getThroughput() {
+            return round(sortedNanos.size() * 1000.0 / durationMillis);
+        }
+
+        public double getP50Ms() {
+            return percentileMillis(0.50);
+        }
+
+        public double getP99Ms() {
+            return percentileMillis(0.99);
+        }
+
+        private double percentileMillis(double percentile) {
+            if (sortedNanos.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+            return round(sortedNanos.get(Math.max(index, 0)) / 1_000_000.0);
+        }
+    }
+}
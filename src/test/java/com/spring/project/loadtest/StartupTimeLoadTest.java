@@ -0,0 +1,115 @@
+package com.spring.project.loadtest;
+
+import com.spring.project.ProjectApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 기동 시간 / 첫 요청까지 걸린 시간 (./gradlew loadTest)
+ *
+ * 매번 새 JVM으로 애플리케이션을 띄워서(같은 H2 파일 DB) 기본 설정과 faststart 프로파일을 비교한다.
+ * 기본 설정은 ddl-auto=update로 스키마를 맞추면서 기동하고, faststart는 만들어진 스키마를 그대로 쓴다.
+ * 값은 애플리케이션의 StartupMetrics가 남긴 것을 모아 build/reports/loadtest/startup.json 에 남긴다. (커밋 간 비교용)
+ */
+@Tag("load")
+class StartupTimeLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimeLoadTest.class);
+
+    private static final long TIMEOUT_MS = 120_000;
+
+    @Test
+    void reportsStartupAndFirstRequestTimes() throws Exception {
+        Path work = Paths.get("build", "loadtest", "startup").toAbsolutePath();
+        Files.createDirectories(work);
+        String databaseUrl = "jdbc:h2:file:" + work.resolve("db-" + System.currentTimeMillis()) + ";MODE=MariaDB";
+
+        String standard = start("default", work, databaseUrl);
+        String fastStart = start("faststart", work, databaseUrl,
+                "--spring.profiles.active=faststart",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+
+        String report = "{\n  \"default\": " + standard.trim() + ",\n  \"faststart\": " + fastStart.trim() + "\n}\n";
+        Path reportFile = Paths.get("build", "reports", "loadtest", "startup.json");
+        Files.createDirectories(reportFile.getParent());
+        Files.write(reportFile, report.getBytes(StandardCharsets.UTF_8));
+        log.info("{} :\n{}", reportFile.toAbsolutePath(), report);
+
+        assertThat(standard).contains("jvmToFirstRequestMs");
+        assertThat(fastStart).contains("jvmToFirstRequestMs");
+    }
+
+    // 애플리케이션을 띄우고 첫 요청(GET /login)을 보낸 뒤 StartupMetrics 보고서를 읽어서 반환
+    private static String start(String name, Path work, String databaseUrl, String... extraArgs) throws Exception {
+        String classpath = System.getProperty("loadtest.classpath", System.getProperty("java.class.path"));
+        int port = freePort();
+        Path reportFile = work.resolve(name + ".json");
+        Files.deleteIfExists(reportFile);
+
+        List<String> command = new ArrayList<>(Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", classpath,
+                ProjectApplication.class.getName(),
+                "--server.port=" + port,
+                "--spring.datasource.url=" + databaseUrl,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--startup.report-file=" + reportFile,
+                "--logging.level.root=WARN"));
+        command.addAll(Arrays.asList(extraArgs));
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(work.resolve(name + ".log").toFile())
+                .start();
+        try {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+            while (firstRequest(port) == false) {
+                assertThat(process.isAlive()).as(name + " 기동 실패, 로그 : " + work.resolve(name + ".log")).isTrue();
+                assertThat(System.currentTimeMillis()).as(name + " 기동 시간 초과").isLessThan(deadline);
+                Thread.sleep(20);
+            }
+            // 보고서는 응답이 끝난 뒤에 쓰인다.
+            while (Files.exists(reportFile) == false || Files.size(reportFile) == 0) {
+                assertThat(System.currentTimeMillis()).as(name + " 보고서 없음").isLessThan(deadline);
+                Thread.sleep(20);
+            }
+            return new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8);
+        } finally {
+            process.destroy(); // 정상 종료시켜서 H2 파일을 닫는다.
+            process.waitFor();
+        }
+    }
+
+    private static boolean firstRequest(int port) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/login").openConnection();
+            connection.setConnectTimeout(1000);
+            return connection.getResponseCode() == 200;
+        } catch (IOException e) {
+            return false; // 아직 포트가 열리지 않음
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
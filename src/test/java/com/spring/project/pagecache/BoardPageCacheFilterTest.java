@@ -0,0 +1,138 @@
+package com.spring.project.pagecache;
+
+import com.spring.project.config.CacheConfig;
+import com.spring.project.entity.Board;
+import com.spring.project.repository.BoardRepository;
+import com.spring.project.service.BoardHitCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 게시판 페이지 캐시 / 조건부 GET 테스트
+ */
+class BoardPageCacheFilterTest {
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    private BoardPageCacheFilter filter;
+
+    private BoardPageCache boardPageCache;
+
+    private BoardRepository boardRepository;
+
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        boardRepository = mock(BoardRepository.class);
+        board = new Board();
+        board.setBoardIdx(7);
+        board.setUpdateDatetime(LocalDateTime.of(2022, 10, 1, 12, 0));
+        when(boardRepository.findWithFileListByBoardIdx(7)).thenReturn(Optional.of(board));
+
+        boardPageCache = new BoardPageCache();
+        boardPageCache.cacheManager = new ConcurrentMapCacheManager(CacheConfig.PAGES);
+        boardPageCache.boardRepository = boardRepository;
+
+        filter = new BoardPageCacheFilter();
+        filter.boardPageCache = boardPageCache;
+        filter.boardHitCounter = mock(BoardHitCounter.class);
+        filter.enabled = true;
+    }
+
+    @Test
+    void listIsRenderedOnceAndThenServedFromCache() throws Exception {
+        MockHttpServletResponse first = get("/board", null);
+        MockHttpServletResponse second = get("/board", null);
+
+        assertThat(renders).hasValue(1);
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(second.getHeader("ETag")).isEqualTo(first.getHeader("ETag"));
+        assertThat(second.getHeader("Cache-Control")).isEqualTo("private, no-cache");
+    }
+
+    @Test
+    void listIsRenderedAgainAfterInvalidation() throws Exception {
+        String eTag = get("/board", null).getHeader("ETag");
+
+        boardPageCache.invalidateLists();
+        MockHttpServletResponse response = get("/board", eTag);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isNotEqualTo(eTag);
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void unchangedDetailIsNotModifiedAndStillCountsTheView() throws Exception {
+        String eTag = get("/board/7", null).getHeader("ETag");
+
+        MockHttpServletResponse response = get("/board/7", eTag);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentLength()).isZero();
+        assertThat(renders).hasValue(1);
+        verify(filter.boardHitCounter, times(1)).increment(7);
+    }
+
+    @Test
+    void detailChangesWhenBoardIsUpdated() throws Exception {
+        String eTag = get("/board/7", null).getHeader("ETag");
+
+        board.setUpdateDatetime(board.getUpdateDatetime().plusMinutes(1));
+        MockHttpServletResponse response = get("/board/7", eTag);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void errorsAreNotCached() throws Exception {
+        when(boardRepository.findWithFileListByBoardIdx(8)).thenReturn(Optional.of(board));
+
+        get("/board/8", null, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        get("/board/8", null, HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+
+        assertThat(renders).hasValue(2);
+    }
+
+    private MockHttpServletResponse get(String uri, String ifNoneMatch) throws Exception {
+        return get(uri, ifNoneMatch, HttpServletResponse.SC_OK);
+    }
+
+    private MockHttpServletResponse get(String uri, String ifNoneMatch, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                renders.incrementAndGet();
+                resp.setStatus(status);
+                resp.setContentType("text/html;charset=UTF-8");
+                resp.getWriter().write("<html>" + uri + " #" + renders.get() + "</html>");
+            }
+        }));
+        return response;
+    }
+}
@@ -0,0 +1,97 @@
+package com.spring.project.repository;
+
+import com.spring.project.entity.Board;
+import com.spring.project.entity.BoardFileEntity;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 게시글 조회 경로별 SQL 실행 수 고정 테스트 (N+1 회귀 방지)
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BoardRepositoryTest {
+
+    private static final int BOARD_COUNT = 30;
+
+    private static final int FILES_PER_BOARD = 2;
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private int lastBoardIdx;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < BOARD_COUNT; i++) {
+            lastBoardIdx = entityManager.persist(board("title" + i)).getBoardIdx();
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void detailLoadsBoardAndFilesInOneStatement() {
+        Board board = boardRepository.findWithFileListByBoardIdx(lastBoardIdx).get();
+
+        assertThat(board.getFileList()).hasSize(FILES_PER_BOARD);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByIdDoesNotLoadFiles() {
+        boardRepository.findById(lastBoardIdx).get();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void lazyFileListsAreLoadedInBatches() {
+        List<Board> boards = boardRepository.findAll();
+        for (Board board : boards) {
+            assertThat(board.getFileList()).hasSize(FILES_PER_BOARD);
+        }
+
+        // 게시글 1번 + 첨부파일 IN (...) 1번 (BatchSize 100 > 30)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private Board board(String title) {
+        Board board = new Board();
+        board.setTitle(title);
+        board.setContent("content");
+        board.setCreatorId("admin");
+        List<BoardFileEntity> fileList = new ArrayList<>();
+        for (int i = 0; i < FILES_PER_BOARD; i++) {
+            BoardFileEntity boardFile = new BoardFileEntity();
+            boardFile.setOriginalFillName(title + "-" + i + ".png");
+            boardFile.setStoredFilePath("images/blobs/" + title + "-" + i + ".png");
+            boardFile.setFileSize(10);
+            boardFile.setCreatorId("admin");
+            fileList.add(boardFile);
+        }
+        board.setFileList(fileList);
+        return board;
+    }
+}
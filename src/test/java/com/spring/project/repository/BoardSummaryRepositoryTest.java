@@ -0,0 +1,152 @@
+package com.spring.project.repository;
+
+import com.spring.project.dto.BoardListDto;
+import com.spring.project.entity.Board;
+import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.service.BoardSummaryWriter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 게시글 목록(요약 테이블) 조회 테스트
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(BoardSummaryWriter.class)
+class BoardSummaryRepositoryTest {
+
+    private static final int BOARD_COUNT = 30;
+
+    private static final int FILES_PER_BOARD = 2;
+
+    @Autowired
+    BoardSummaryRepository boardSummaryRepository;
+
+    @Autowired
+    BoardSummaryWriter boardSummaryWriter;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    private int lastBoardIdx;
+
+    private final Set<Integer> boardsWithFiles = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < BOARD_COUNT; i++) {
+            // 짝수 번째 게시글만 첨부파일이 있다. (마지막 게시글은 홀수 번째라 첨부파일 없음)
+            int fileCount = i % 2 == 0 ? FILES_PER_BOARD : 0;
+            lastBoardIdx = entityManager.persist(board("title" + i, fileCount)).getBoardIdx();
+            if (fileCount > 0) {
+                boardsWithFiles.add(lastBoardIdx);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        boardSummaryWriter.backfill();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listPageIsOneStatementWithFileCountsAndThumbnails() {
+        List<BoardListDto> page = boardSummaryRepository.findBoardListBefore(Integer.MAX_VALUE, PageRequest.of(0, 20));
+
+        assertThat(page).hasSize(20);
+        assertThat(page.get(0).getBoardIdx()).isEqualTo(lastBoardIdx);
+        assertThat(page).allSatisfy(dto -> {
+            boolean hasFiles = boardsWithFiles.contains(dto.getBoardIdx());
+            assertThat(dto.getFileCount()).isEqualTo(hasFiles ? FILES_PER_BOARD : 0);
+            assertThat(dto.getThumbnailFileIdx() != null).isEqualTo(hasFiles);
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshFollowsDeletedFilesAndBoards() {
+        List<Integer> boardIdxs = Collections.singletonList(boardsWithFiles.iterator().next());
+        int thumbnailFileIdx = boardSummaryRepository.findBoardListByBoardIdxIn(boardIdxs).get(0).getThumbnailFileIdx();
+
+        jdbcTemplate.update("DELETE FROM t_jpa_file WHERE idx = ?", thumbnailFileIdx);
+        boardSummaryWriter.refresh(boardIdxs);
+
+        BoardListDto dto = boardSummaryRepository.findBoardListByBoardIdxIn(boardIdxs).get(0);
+        assertThat(dto.getFileCount()).isEqualTo(FILES_PER_BOARD - 1);
+        assertThat(dto.getThumbnailFileIdx()).isNotNull().isNotEqualTo(thumbnailFileIdx);
+
+        jdbcTemplate.update("DELETE FROM t_jpa_file WHERE board_idx = ?", boardIdxs.get(0));
+        jdbcTemplate.update("DELETE FROM t_jpa_board WHERE board_idx = ?", boardIdxs.get(0));
+        boardSummaryWriter.refresh(boardIdxs);
+
+        assertThat(boardSummaryRepository.findBoardListByBoardIdxIn(boardIdxs)).isEmpty();
+    }
+
+    @Test
+    void thumbnailIsTheFirstImageAttachment() {
+        Board board = board("mixed", 2);
+        List<BoardFileEntity> fileList = new ArrayList<>(board.getFileList());
+        fileList.get(0).setStoredFilePath("images/blobs/mixed-0.pdf");
+        int boardIdx = entityManager.persist(board).getBoardIdx();
+        entityManager.flush();
+        List<Integer> boardIdxs = Collections.singletonList(boardIdx);
+        boardSummaryWriter.refresh(boardIdxs);
+
+        BoardListDto dto = boardSummaryRepository.findBoardListByBoardIdxIn(boardIdxs).get(0);
+        assertThat(dto.getFileCount()).isEqualTo(2);
+        assertThat(dto.getThumbnailFileIdx()).isEqualTo(fileList.get(1).getIdx());
+    }
+
+    @Test
+    void hitsAreAddedToTheSummaryRow() {
+        List<Object[]> batch = new ArrayList<>();
+        batch.add(new Object[]{5, lastBoardIdx});
+        boardSummaryWriter.addHits(batch);
+
+        BoardListDto dto = boardSummaryRepository.findBoardListByBoardIdxIn(Collections.singletonList(lastBoardIdx)).get(0);
+        assertThat(dto.getHitCnt()).isEqualTo(5);
+    }
+
+    private Board board(String title, int fileCount) {
+        Board board = new Board();
+        board.setTitle(title);
+        board.setContent("content");
+        board.setCreatorId("admin");
+        List<BoardFileEntity> fileList = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            BoardFileEntity boardFile = new BoardFileEntity();
+            boardFile.setOriginalFillName(title + "-" + i + ".png");
+            boardFile.setStoredFilePath("images/blobs/" + title + "-" + i + ".png");
+            boardFile.setFileSize(10);
+            boardFile.setCreatorId("admin");
+            fileList.add(boardFile);
+        }
+        board.setFileList(fileList);
+        return board;
+    }
+}
@@ -0,0 +1,86 @@
+package com.spring.project.search;
+
+import com.spring.project.dto.BoardSearchDocument;
+import com.spring.project.repository.BoardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 검색 색인 테스트 (점수 순서, 페이지, 재구성 중 저장 / 삭제)
+ */
+class BoardSearchIndexTest {
+
+    private BoardSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BoardSearchIndex();
+        index.boardRepository = mock(BoardRepository.class);
+    }
+
+    @Test
+    void titleMatchRanksAboveContentMatch() {
+        index.index(1, "잡담", "공지사항");
+        index.index(2, "공지사항", "잡담");
+        index.index(3, "자유", "아무 내용");
+
+        SearchHits hits = index.search("공지사항", 0, 10);
+
+        assertThat(hits.getTotalHits()).isEqualTo(2);
+        assertThat(hits.getBoardIdxs()).containsExactly(2, 1);
+    }
+
+    @Test
+    void pagesFollowRankingAndNewerPostsWinTies() {
+        for (int boardIdx = 1; boardIdx <= 5; boardIdx++) {
+            index.index(boardIdx, "검색 테스트", "같은 내용");
+        }
+
+        assertThat(index.search("검색", 0, 2).getBoardIdxs()).containsExactly(5, 4);
+        assertThat(index.search("검색", 1, 2).getBoardIdxs()).containsExactly(3, 2);
+        assertThat(index.search("검색", 2, 2).getBoardIdxs()).containsExactly(1);
+        assertThat(index.search("검색", 3, 2).getBoardIdxs()).isEmpty();
+        assertThat(index.search("검색", Integer.MAX_VALUE, 100).getBoardIdxs()).isEmpty();
+        assertThat(index.search("검색", 0, 2).getTotalHits()).isEqualTo(5);
+    }
+
+    @Test
+    void removedPostIsNotFound() {
+        index.index(1, "삭제할 글", "내용");
+        index.remove(1);
+
+        assertThat(index.search("삭제", 0, 10).getTotalHits()).isZero();
+    }
+
+    @Test
+    void rebuildKeepsWritesMadeWhileReadingTheDatabase() {
+        index.index(1, "지울 글", "내용");
+        index.index(2, "예전 제목", "내용");
+        // DB를 읽는 사이 1번 삭제, 2번 수정, 3번 작성 (읽어온 행은 그 전의 내용)
+        when(index.boardRepository.findSearchDocumentsAfter(anyInt(), any())).thenAnswer(invocation -> {
+            if (invocation.<Integer>getArgument(0) > 0) {
+                return Collections.emptyList();
+            }
+            index.remove(1);
+            index.index(2, "고친 제목", "내용");
+            index.index(3, "새로운 글", "재구성 도중");
+            return Arrays.asList(new BoardSearchDocument(1, "지울 글", "내용"), new BoardSearchDocument(2, "예전 제목", "내용"));
+        });
+
+        index.rebuild();
+
+        assertThat(index.search("지울", 0, 10).getBoardIdxs()).isEmpty();
+        assertThat(index.search("예전", 0, 10).getBoardIdxs()).isEmpty();
+        assertThat(index.search("고친", 0, 10).getBoardIdxs()).containsExactly(2);
+        assertThat(index.search("도중", 0, 10).getBoardIdxs()).containsExactly(3);
+    }
+}
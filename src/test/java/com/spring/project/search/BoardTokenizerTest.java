@@ -0,0 +1,29 @@
+package com.spring.project.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 검색 토크나이저 테스트 (한글 bigram, 영문 / 숫자 단어)
+ */
+class BoardTokenizerTest {
+
+    @Test
+    void hangulIsSplitIntoOverlappingBigrams() {
+        assertThat(BoardTokenizer.tokenize("게시판입니다")).containsExactly("게시", "시판", "판입", "입니", "니다");
+        assertThat(BoardTokenizer.tokenize("글")).containsExactly("글");
+    }
+
+    @Test
+    void latinWordsAreLowercasedAndSeparatedFromHangul() {
+        assertThat(BoardTokenizer.tokenize("Spring 게시판 v2")).containsExactly("spring", "게시", "시판", "v2");
+        assertThat(BoardTokenizer.tokenize("스프링Boot, JPA!")).containsExactly("스프", "프링", "boot", "jpa");
+    }
+
+    @Test
+    void emptyInputHasNoTokens() {
+        assertThat(BoardTokenizer.tokenize(null)).isEmpty();
+        assertThat(BoardTokenizer.tokenize(" ,.!? ")).isEmpty();
+    }
+}
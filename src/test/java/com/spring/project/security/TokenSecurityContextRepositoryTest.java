@@ -0,0 +1,153 @@
+package com.spring.project.security;
+
+import com.spring.project.controller.UserController;
+import com.spring.project.entity.UserInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 서명된 토큰 쿠키 로그인 (security.session.mode=stateless) 테스트
+ */
+class TokenSecurityContextRepositoryTest {
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000L);
+
+    private AuthTokenService authTokenService;
+
+    private TokenSecurityContextRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        authTokenService = new AuthTokenService(new SimpleMeterRegistry(), "stateless", "", 1800, 900, false);
+        authTokenService.epochSeconds = now::get;
+        repository = new TokenSecurityContextRepository(authTokenService);
+    }
+
+    @Test
+    void tokenIssuedAtLoginAuthenticatesLaterRequestsWithoutSession() {
+        String token = login();
+
+        MockHttpServletRequest request = request(token);
+        SecurityContext context = repository.loadContext(new HttpRequestResponseHolder(request, new MockHttpServletResponse()));
+
+        UserInfo user = (UserInfo) context.getAuthentication().getPrincipal();
+        assertThat(user.getEmail()).isEqualTo("user@test.com");
+        assertThat(user.getName()).isEqualTo("사용자");
+        assertThat(AuthorityUtils.authorityListToSet(context.getAuthentication().getAuthorities()))
+                .containsExactlyInAnyOrder("ROLE_ADMIN", "ROLE_USER");
+        assertThat(request.getSession(false)).isNull();
+    }
+
+    @Test
+    void tamperedOrExpiredTokenIsIgnored() {
+        String token = login();
+        String forged = authTokenService.encode(new AuthToken("id", now.get(), now.get() + 1800, "user@test.com", "ROLE_ADMIN", ""))
+                .split("\\.")[0] + "." + token.split("\\.")[1]; // 다른 내용에 기존 서명
+
+        assertThat(load(forged).getAuthentication()).isNull();
+
+        now.addAndGet(1800);
+        assertThat(load(token).getAuthentication()).isNull();
+    }
+
+    @Test
+    void logoutRevokesToken() {
+        String token = login();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        repository.logout(request(token), response, null);
+
+        assertThat(load(token).getAuthentication()).isNull();
+        assertThat(response.getHeader("Set-Cookie")).contains("Max-Age=0");
+    }
+
+    @Test
+    void tokenIsReissuedOnlyAfterRefreshInterval() {
+        String token = login();
+
+        assertThat(respondWith(token).getHeader("Set-Cookie")).isNull();
+
+        now.addAndGet(900);
+        assertThat(respondWith(token).getHeader("Set-Cookie")).startsWith(AuthTokenService.COOKIE_NAME + "=");
+    }
+
+    @Test
+    void refreshLeavesThePreviousTokenValidUntilItExpires() {
+        String token = login();
+        now.addAndGet(900);
+
+        String header = respondWith(token).getHeader("Set-Cookie");
+        String refreshed = header.substring(header.indexOf('=') + 1, header.indexOf(';'));
+
+        // 이전 쿠키로 동시에 보낸 요청도 로그인 상태로 처리된다.
+        assertThat(load(token).getAuthentication()).isNotNull();
+        assertThat(load(refreshed).getAuthentication()).isNotNull();
+    }
+
+    @Test
+    void getLogoutRevokesTokenAndExpiresCookie() {
+        String token = login();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        String view = new UserController(null, authTokenService).logoutPage(request(token), response);
+
+        assertThat(view).isEqualTo("redirect:/login");
+        assertThat(load(token).getAuthentication()).isNull();
+        assertThat(response.getHeader("Set-Cookie")).startsWith(AuthTokenService.COOKIE_NAME + "=").contains("Max-Age=0");
+    }
+
+    // 로그인 성공 후 redirect (응답 커밋) 때 쿠키가 써지는지 확인하고 토큰 값을 반환
+    private String login() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpRequestResponseHolder holder = new HttpRequestResponseHolder(new MockHttpServletRequest(), response);
+        repository.loadContext(holder);
+        UserInfo user = UserInfo.builder().email("user@test.com").name("사용자").auth("ROLE_ADMIN,ROLE_USER").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        try {
+            holder.getResponse().setStatus(HttpServletResponse.SC_FOUND);
+            holder.getResponse().flushBuffer();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        String header = response.getHeader("Set-Cookie");
+        assertThat(header).contains("HttpOnly").contains("SameSite=Lax");
+        return header.substring(header.indexOf('=') + 1, header.indexOf(';'));
+    }
+
+    private MockHttpServletResponse respondWith(String token) {
+        MockHttpServletRequest request = request(token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+        SecurityContext context = repository.loadContext(holder);
+        repository.saveContext(context, request, holder.getResponse());
+        return response;
+    }
+
+    private SecurityContext load(String token) {
+        return repository.loadContext(new HttpRequestResponseHolder(request(token), new MockHttpServletResponse()));
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(AuthTokenService.COOKIE_NAME, token));
+        return request;
+    }
+}
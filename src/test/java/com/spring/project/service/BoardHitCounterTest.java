@@ -0,0 +1,121 @@
+package com.spring.project.service;
+
+import com.spring.project.changelog.ChangeLogWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 조회수 카운터 테스트 (DB 없이 flush된 값만 모은다.)
+ */
+class BoardHitCounterTest {
+
+    private static final int THREADS = 8;
+
+    private static final int VIEWS_PER_THREAD = 20_000;
+
+    private static final int BOARDS = 3;
+
+    private final Map<Integer, Long> flushed = new ConcurrentHashMap<>();
+
+    private BoardHitCounter counter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        counter = new BoardHitCounter();
+        counter.jdbcTemplate = mock(JdbcTemplate.class);
+        counter.transactionTemplate = mock(TransactionTemplate.class);
+        counter.boardSummaryWriter = mock(BoardSummaryWriter.class);
+        counter.changeLogWriter = mock(ChangeLogWriter.class);
+        counter.eventPublisher = mock(ApplicationEventPublisher.class);
+
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(counter.transactionTemplate).executeWithoutResult(any());
+        doAnswer(invocation -> {
+            for (Object[] row : (List<Object[]>) invocation.getArgument(1)) {
+                flushed.merge((Integer) row[1], (Long) row[0], Long::sum);
+            }
+            return new int[0];
+        }).when(counter.jdbcTemplate).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flushRemovesZeroedCounters() {
+        counter.increment(1);
+        counter.increment(1);
+
+        counter.flush();
+        assertThat(flushed).containsEntry(1, 2L);
+        assertThat(counter.pending(1)).isZero();
+
+        counter.increment(1);
+        counter.flush();
+        assertThat(flushed).containsEntry(1, 3L);
+    }
+
+    @Test
+    void concurrentViewsAndFlushesLoseNoHits() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> viewers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread viewer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                    counter.increment(i % BOARDS);
+                }
+            });
+            viewer.start();
+            viewers.add(viewer);
+        }
+        // 조회하는 동안 계속 flush 해서 카운터가 지워졌다 다시 만들어지게 한다.
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (running.get()) {
+                counter.flush();
+            }
+        });
+        flusher.start();
+
+        start.countDown();
+        for (Thread viewer : viewers) {
+            viewer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        running.set(false);
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        counter.flush();
+        counter.flush(); // 마지막으로 지운 카운터에 남은 값까지
+
+        long total = flushed.values().stream().mapToLong(Long::longValue).sum();
+        assertThat(total).isEqualTo((long) THREADS * VIEWS_PER_THREAD);
+        for (int boardIdx = 0; boardIdx < BOARDS; boardIdx++) {
+            assertThat(counter.pending(boardIdx)).isZero();
+        }
+    }
+}
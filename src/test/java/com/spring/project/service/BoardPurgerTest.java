@@ -0,0 +1,126 @@
+package com.spring.project.service;
+
+import com.spring.project.entity.Board;
+import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.repository.BoardRepository;
+import com.spring.project.util.FileUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 게시글 삭제 표시 / 정리 테스트
+ */
+@DataJpaTest(properties = "board.purge.batch-size=2")
+@Import({BoardPurger.class, BoardPurgerTest.MetricsConfig.class})
+class BoardPurgerTest {
+
+    @Autowired
+    BoardPurger boardPurger;
+
+    @Autowired
+    BoardRepository boardRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @MockBean
+    FileUtils fileUtils;
+
+    @Test
+    void markedBoardsAreHiddenBeforeTheyArePurged() {
+        int deleted = persist("deleted", 3).getBoardIdx();
+        Board board = persist("file-deleted", 2);
+        int boardIdx = board.getBoardIdx();
+        int fileIdx = board.getFileList().iterator().next().getIdx();
+
+        boardRepository.markBoardDeleted(deleted, LocalDateTime.now());
+        boardRepository.markBoardFilesDeleted(deleted, LocalDateTime.now());
+        boardRepository.markBoardFileDeleted(fileIdx, boardIdx, LocalDateTime.now());
+        entityManager.clear();
+
+        assertThat(boardRepository.findWithFileListByBoardIdx(deleted)).isEmpty();
+        assertThat(boardRepository.findWithFileListByBoardIdx(boardIdx).get().getFileList()).hasSize(1);
+        assertThat(boardRepository.findBoardFile(fileIdx, boardIdx)).isNull();
+
+        // 유지 시간(기본 300초)이 지나지 않았으므로 지우지 않는다.
+        assertThat(boardPurger.purge()).isZero();
+        assertThat(backlog("board")).isEqualTo(1);
+        assertThat(backlog("file")).isEqualTo(4);
+    }
+
+    @Test
+    void purgeDeletesRowsInBatchesAndReleasesStoredFiles() {
+        Board deleted = persist("deleted", 3);
+        Board kept = persist("kept", 1);
+        LocalDateTime expired = LocalDateTime.now().minusHours(1);
+        boardRepository.markBoardDeleted(deleted.getBoardIdx(), expired);
+        boardRepository.markBoardFilesDeleted(deleted.getBoardIdx(), expired);
+        entityManager.clear();
+
+        // 첨부파일 3개 (batch-size 2 => 두 문장) + 게시글 1개
+        assertThat(boardPurger.purge()).isEqualTo(4);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_jpa_board", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_jpa_file", Integer.class)).isEqualTo(1);
+        assertThat(boardRepository.findWithFileListByBoardIdx(kept.getBoardIdx()).get().getFileList()).hasSize(1);
+        verify(fileUtils).releaseFiles(argThat(paths -> paths.contains("images/blobs/deleted-0.png")
+                && paths.contains("images/blobs/deleted-1.png")));
+        verify(fileUtils).releaseFiles(argThat(paths -> paths.contains("images/blobs/deleted-2.png")));
+        assertThat(backlog("board")).isZero();
+        assertThat(backlog("file")).isZero();
+    }
+
+    private double backlog(String kind) {
+        return meterRegistry.get("board.purge.backlog").tag("kind", kind).gauge().value();
+    }
+
+    private Board persist(String title, int fileCount) {
+        Board board = new Board();
+        board.setTitle(title);
+        board.setContent("content");
+        board.setCreatorId("admin");
+        List<BoardFileEntity> fileList = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            BoardFileEntity boardFile = new BoardFileEntity();
+            boardFile.setOriginalFillName(title + "-" + i + ".png");
+            boardFile.setStoredFilePath("images/blobs/" + title + "-" + i + ".png");
+            boardFile.setFileSize(10);
+            boardFile.setCreatorId("admin");
+            fileList.add(boardFile);
+        }
+        board.setFileList(fileList);
+        entityManager.persist(board);
+        entityManager.flush();
+        return board;
+    }
+
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.spring.project.storage;
+
+import com.spring.project.repository.BoardFileRenditionRepository;
+import com.spring.project.repository.BoardRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 저장 경로 검사 / 중복 제거 / 참조가 남은 파일의 삭제 보류 테스트
+ */
+class ContentAddressedAttachmentStoreTest {
+
+    private static final byte[] CONTENT = "같은 내용의 첨부파일".getBytes(StandardCharsets.UTF_8);
+
+    private final ContentAddressedAttachmentStore store = new ContentAddressedAttachmentStore("images/blobs");
+
+    @TempDir
+    Path root;
+
+    @Test
+    void pathsUnderRootAreNormalizedToStoreFormat() {
+        assertThat(store.normalizeStoredFilePath("images/blobs/ab/cd/abcd.png")).isEqualTo("images/blobs/ab/cd/abcd.png");
+        assertThat(store.normalizeStoredFilePath("images/blobs/ab/../ab/cd/abcd.png")).isEqualTo("images/blobs/ab/cd/abcd.png");
+        assertThat(store.normalizeStoredFilePath(Paths.get("images/blobs/ab/cd/abcd.png").toAbsolutePath().toString()))
+                .isEqualTo("images/blobs/ab/cd/abcd.png");
+    }
+
+    @Test
+    void pathsOutsideRootAreRejected() {
+        for (String storedFilePath : new String[]{"images/blobs/../../etc/passwd", "/etc/passwd", "images/other.png",
+                "images/blobs", "images/blobs/tmp/upload-1.part", ""}) {
+            assertThatThrownBy(() -> store.normalizeStoredFilePath(storedFilePath))
+                    .as(storedFilePath)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void sameContentIsStoredOnce() throws IOException {
+        ContentAddressedAttachmentStore store = storeWithReferences(0, 0);
+
+        StoredAttachment first = store.store(new ByteArrayInputStream(CONTENT), ".png");
+        StoredAttachment second = store.store(new ByteArrayInputStream(CONTENT), ".png");
+
+        assertThat(second.getStoredFilePath()).isEqualTo(first.getStoredFilePath());
+        assertThat(second.getChecksum()).isEqualTo(first.getChecksum());
+        assertThat(second.getFileSize()).isEqualTo(CONTENT.length);
+        assertThat(blobs()).containsExactly(Paths.get(first.getStoredFilePath()));
+        assertThat(Files.readAllBytes(Paths.get(first.getStoredFilePath()))).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void pinnedFileIsKeptOnRelease() throws IOException {
+        ContentAddressedAttachmentStore store = storeWithReferences(0, 0);
+        StoredAttachment stored = store.store(new ByteArrayInputStream(CONTENT), ".png");
+
+        // 업로드 중 (아직 DB 행이 없음)
+        store.release(Collections.singletonList(stored.getStoredFilePath()));
+        assertThat(Paths.get(stored.getStoredFilePath())).exists();
+
+        store.unpin(Collections.singletonList(stored.getStoredFilePath()));
+        store.release(Collections.singletonList(stored.getStoredFilePath()));
+        assertThat(Paths.get(stored.getStoredFilePath())).doesNotExist();
+    }
+
+    @Test
+    void fileReferencedByAnotherAttachmentIsKept() throws IOException {
+        assertReleaseKeepsFile(storeWithReferences(1, 0));
+    }
+
+    @Test
+    void fileReferencedByRenditionIsKept() throws IOException {
+        assertReleaseKeepsFile(storeWithReferences(0, 1));
+    }
+
+    @Test
+    void unreferencedFileIsDeleted() throws IOException {
+        ContentAddressedAttachmentStore store = storeWithReferences(0, 0);
+        StoredAttachment stored = store.store(new ByteArrayInputStream(CONTENT), ".png");
+        store.unpin(Collections.singletonList(stored.getStoredFilePath()));
+
+        store.release(Collections.singletonList(stored.getStoredFilePath()));
+
+        assertThat(Paths.get(stored.getStoredFilePath())).doesNotExist();
+        assertThat(blobs()).isEmpty();
+    }
+
+    private void assertReleaseKeepsFile(ContentAddressedAttachmentStore store) throws IOException {
+        StoredAttachment stored = store.store(new ByteArrayInputStream(CONTENT), ".png");
+        store.unpin(Collections.singletonList(stored.getStoredFilePath()));
+
+        store.release(Collections.singletonList(stored.getStoredFilePath()));
+
+        assertThat(Paths.get(stored.getStoredFilePath())).exists();
+    }
+
+    // 같은 storedFilePath를 가진 t_jpa_file / t_jpa_file_rendition 행 수를 고정한 저장소
+    private ContentAddressedAttachmentStore storeWithReferences(long fileReferences, long renditionReferences) {
+        ContentAddressedAttachmentStore store = new ContentAddressedAttachmentStore(root.toString());
+        store.boardRepository = mock(BoardRepository.class);
+        store.boardFileRenditionRepository = mock(BoardFileRenditionRepository.class);
+        when(store.boardRepository.countFileReference(anyString())).thenReturn(fileReferences);
+        when(store.boardFileRenditionRepository.countRenditionReference(anyString()))
+                .thenReturn(renditionReferences);
+        return store;
+    }
+
+    // 업로드 임시 디렉토리를 뺀 저장된 파일
+    private List<Path> blobs() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(path -> path.startsWith(root.resolve("tmp")) == false)
+                    .collect(Collectors.toList());
+        }
+    }
+}
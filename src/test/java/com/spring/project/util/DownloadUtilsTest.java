@@ -0,0 +1,147 @@
+package com.spring.project.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 첨부파일 다운로드 응답 코드 테스트 (200 / 206 / 304 / 416)
+ */
+class DownloadUtilsTest {
+
+    private static final String CONTENT = "0123456789";
+
+    private static final String ETAG = "\"a-1\"";
+
+    private static final long LAST_MODIFIED = 1_600_000_000_000L;
+
+    private final DownloadUtils downloadUtils = new DownloadUtils();
+
+    private File file;
+
+    @BeforeEach
+    void setUp(@TempDir Path dir) throws IOException {
+        downloadUtils.meterRegistry = new SimpleMeterRegistry();
+        file = Files.write(dir.resolve("file.bin"), CONTENT.getBytes(StandardCharsets.UTF_8)).toFile();
+    }
+
+    @Test
+    void wholeFileWithoutRange() throws IOException {
+        MockHttpServletResponse response = download(new MockHttpServletRequest("GET", "/board/file"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).startsWith("attachment");
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/board/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentLengthLong()).isEqualTo(4);
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+    }
+
+    @Test
+    void ifRangeMatchingETagOrDateKeepsRange() throws IOException {
+        MockHttpServletRequest byETag = new MockHttpServletRequest("GET", "/board/file");
+        byETag.addHeader(HttpHeaders.RANGE, "bytes=7-");
+        byETag.addHeader(HttpHeaders.IF_RANGE, ETAG);
+        MockHttpServletResponse response = download(byETag);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("789");
+
+        MockHttpServletRequest byDate = new MockHttpServletRequest("GET", "/board/file");
+        byDate.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        byDate.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED));
+        response = download(byDate);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("789");
+    }
+
+    @Test
+    void staleIfRangeSendsWholeFile() throws IOException {
+        MockHttpServletRequest byETag = new MockHttpServletRequest("GET", "/board/file");
+        byETag.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        byETag.addHeader(HttpHeaders.IF_RANGE, "\"old\"");
+        MockHttpServletResponse response = download(byETag);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+
+        MockHttpServletRequest byDate = new MockHttpServletRequest("GET", "/board/file");
+        byDate.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        byDate.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED - 60_000));
+        response = download(byDate);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/board/file");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void rangePastEndIsNotSatisfiable() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/board/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-20");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void multipleRangesFallBackToWholeFile() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/board/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,4-5");
+
+        MockHttpServletResponse response = download(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    private MockHttpServletResponse download(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        downloadUtils.sendFile(file, "file.bin", ETAG, LAST_MODIFIED, request, response);
+        return response;
+    }
+
+    private static String httpDate(long epochMillis) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setDate(HttpHeaders.IF_RANGE, epochMillis);
+        return headers.getFirst(HttpHeaders.IF_RANGE);
+    }
+}
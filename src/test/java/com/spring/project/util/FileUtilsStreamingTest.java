@@ -0,0 +1,140 @@
+package com.spring.project.util;
+
+import com.spring.project.entity.BoardFileEntity;
+import com.spring.project.storage.AttachmentStore;
+import com.spring.project.storage.StoredAttachment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 스트리밍 multipart 업로드 테스트 (FileUtils.parseStreamingUpload)
+ */
+class FileUtilsStreamingTest {
+
+    private static final String BOUNDARY = "----boundary";
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13};
+
+    private final List<byte[]> stored = new ArrayList<>();
+
+    private FileUtils fileUtils;
+
+    private AttachmentStore attachmentStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        attachmentStore = mock(AttachmentStore.class);
+        when(attachmentStore.store(any(InputStream.class), anyString())).thenAnswer(invocation -> {
+            byte[] bytes = StreamUtils.copyToByteArray(invocation.getArgument(0));
+            stored.add(bytes);
+            return new StoredAttachment("blobs/" + stored.size() + invocation.getArgument(1), "checksum", bytes.length);
+        });
+
+        fileUtils = new FileUtils();
+        fileUtils.attachmentStore = attachmentStore;
+        fileUtils.meterRegistry = new SimpleMeterRegistry();
+        fileUtils.maxFileSize = DataSize.ofBytes(1024);
+        fileUtils.maxRequestSize = DataSize.ofKilobytes(64);
+        fileUtils.maxFiles = 2;
+        fileUtils.maxFields = 5;
+    }
+
+    @Test
+    void imagesAreStoredByMagicBytesRegardlessOfDeclaredType() throws Exception {
+        MockHttpServletRequest request = multipart(
+                field("title", "제목"),
+                file("files", "photo.txt", "text/plain", PNG), // 확장자 / Content-Type이 틀려도 PNG로 저장
+                file("files", "fake.jpg", "image/jpeg", "<script>".getBytes(StandardCharsets.UTF_8)), // 이미지가 아니면 건너뜀
+                field("content", "내용"));
+
+        StreamedUpload upload = fileUtils.parseStreamingUpload(request);
+
+        assertThat(upload.getFields()).containsEntry("title", "제목").containsEntry("content", "내용");
+        assertThat(upload.getFileList()).hasSize(1);
+        BoardFileEntity boardFile = upload.getFileList().get(0);
+        assertThat(boardFile.getOriginalFillName()).isEqualTo("photo.txt");
+        assertThat(boardFile.getStoredFilePath()).endsWith(".png");
+        assertThat(boardFile.getFileSize()).isEqualTo(PNG.length);
+        assertThat(stored.get(0)).isEqualTo(PNG); // 앞부분을 확인하느라 읽은 바이트도 빠지지 않고 저장
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void oversizedPartAbortsAndReleasesStoredFiles() throws Exception {
+        byte[] large = new byte[4096];
+        System.arraycopy(PNG, 0, large, 0, PNG.length);
+        MockHttpServletRequest request = multipart(
+                file("files", "small.png", "image/png", PNG),
+                file("files", "large.png", "image/png", large));
+
+        assertThatThrownBy(() -> fileUtils.parseStreamingUpload(request))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("413");
+        verify(attachmentStore).release((Collection<String>) any());
+    }
+
+    @Test
+    void requestOverSizeLimitIsRejectedBeforeReading() {
+        fileUtils.maxRequestSize = DataSize.ofBytes(100);
+        MockHttpServletRequest request = multipart(file("files", "a.png", "image/png", PNG), field("content", "내용"));
+
+        assertThatThrownBy(() -> fileUtils.parseStreamingUpload(request))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("413");
+        assertThat(stored).isEmpty();
+    }
+
+    private static MockHttpServletRequest multipart(byte[]... parts) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            body.write(part, 0, part.length);
+        }
+        byte[] end = ("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        body.write(end, 0, end.length);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/boardwrite/stream");
+        request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+        request.setContent(body.toByteArray());
+        return request;
+    }
+
+    private static byte[] field(String name, String value) {
+        return part("Content-Disposition: form-data; name=\"" + name + "\"\r\n", value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] file(String name, String fileName, String contentType, byte[] content) {
+        return part("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n" +
+                "Content-Type: " + contentType + "\r\n", content);
+    }
+
+    private static byte[] part(String headers, byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] head = ("--" + BOUNDARY + "\r\n" + headers + "\r\n").getBytes(StandardCharsets.UTF_8);
+        out.write(head, 0, head.length);
+        out.write(content, 0, content.length);
+        out.write('\r');
+        out.write('\n');
+        return out.toByteArray();
+    }
+}